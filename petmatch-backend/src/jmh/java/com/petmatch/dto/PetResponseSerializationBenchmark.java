@@ -0,0 +1,69 @@
+package com.petmatch.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.petmatch.model.PetType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetResponseSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper blackbirdMapper;
+    private List<PetResponseDTO> pets;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the ObjectMapper used by MVC.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        blackbirdMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+
+        pets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            pets.add(new PetResponseDTO(
+                    UUID.randomUUID(),
+                    "Pet " + i,
+                    PetType.values()[i % PetType.values().length],
+                    "Labrador",
+                    i % 2 == 0 ? "Male" : "Female",
+                    i % 15,
+                    "Very friendly and affectionate, loves long walks and children.",
+                    -34.6 + i * 0.001,
+                    -58.4 - i * 0.001));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return objectMapper.writeValueAsBytes(pets);
+    }
+
+    @Benchmark
+    public byte[] serializeListWithBlackbird() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(pets);
+    }
+
+    /**
+     * MVC writes straight to the response stream, so this is the per-request cost
+     * without the {@code byte[]} copy of the whole body.
+     */
+    @Benchmark
+    public void streamListWithBlackbird() throws Exception {
+        blackbirdMapper.writeValue(OutputStream.nullOutputStream(), pets);
+    }
+}
@@ -0,0 +1,115 @@
+package com.petmatch.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load driver for comparing execution modes against a running
+ * instance. Start the app once with VIRTUAL_THREADS_ENABLED=false and once with
+ * true, run this against both, and compare throughput and tail latency.
+ * <p>
+ * Arguments: baseUrl token concurrency durationSeconds [path]
+ */
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: HttpLoadTest <baseUrl> <token> <concurrency> <durationSeconds> [path]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        String token = args[1];
+        int concurrency = Integer.parseInt(args[2]);
+        long durationNanos = Duration.ofSeconds(Long.parseLong(args[3])).toNanos();
+        String path = args.length > 4 ? args[4] : "/api/pets?size=20";
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + durationNanos;
+        List<Future<Result>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(clients.submit(() -> run(client, request, deadline)));
+        }
+
+        Result total = new Result();
+        for (Future<Result> future : futures) {
+            total.merge(future.get());
+        }
+        clients.shutdown();
+
+        long[] latencies = total.latencies();
+        Arrays.sort(latencies);
+        double seconds = durationNanos / 1e9;
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                latencies.length, total.errors, latencies.length / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, long deadline) {
+        Result result = new Result();
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    result.errors++;
+                }
+            } catch (Exception ex) {
+                result.errors++;
+            }
+            result.record(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static class Result {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        long[] latencies() {
+            return Arrays.copyOf(latencies, count);
+        }
+    }
+}
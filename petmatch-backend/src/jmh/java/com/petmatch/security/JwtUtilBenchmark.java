@@ -0,0 +1,66 @@
+package com.petmatch.security;
+
+import com.petmatch.model.Role;
+import com.petmatch.model.User;
+import com.petmatch.service.UserDetailsServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-with-at-least-256-bits";
+
+    private JwtUtil jwtUtil;
+    private AuthTokenCache authTokenCache;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET);
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .name("Gabriela")
+                .email("gaby@example.com")
+                .password("hashed")
+                .role(Role.USER)
+                .build();
+        token = jwtUtil.generateToken(user);
+
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(null) {
+            @Override
+            public AuthenticatedUser loadUserByUsername(String email) {
+                return AuthenticatedUser.of(user);
+            }
+        };
+        authTokenCache = new AuthTokenCache(jwtUtil, userDetailsService, 10_000);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public AuthenticatedUser cachedAuthenticate() {
+        return authTokenCache.authenticate(token);
+    }
+}
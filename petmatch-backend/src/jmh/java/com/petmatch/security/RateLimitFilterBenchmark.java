@@ -0,0 +1,98 @@
+package com.petmatch.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the rate limit filter adds to a request on a limited route, from many threads
+ * at once. {@code clients} controls how many distinct IPs share the buckets: with one,
+ * every thread contends on the same compare-and-set; with many, threads mostly touch
+ * different buckets. {@code capacity} is high enough that requests pass, apart from
+ * the {@code throttled} case where every client is always over its limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final FilterChain PASS = (request, response) -> { };
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private RateLimitFilter filter;
+    private RateLimitFilter throttledFilter;
+
+    @Setup
+    public void setUp() {
+        filter = filter(Integer.MAX_VALUE);
+        throttledFilter = filter(1);
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+
+        private MockHttpServletRequest[] requests;
+        private int next;
+
+        @Setup
+        public void setUp(RateLimitFilterBenchmark benchmark) {
+            requests = new MockHttpServletRequest[Math.min(benchmark.clients, 1024)];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new MockHttpServletRequest("POST", "/api/auth/login");
+                requests[i].setRemoteAddr("10.0." + ThreadLocalRandom.current().nextInt(benchmark.clients) + ".1");
+            }
+        }
+
+        MockHttpServletRequest next() {
+            MockHttpServletRequest request = requests[next];
+            next = (next + 1) % requests.length;
+            // OncePerRequestFilter marks the request as filtered; clear it for reuse.
+            request.clearAttributes();
+            return request;
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse allowed(Requests requests) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(requests.next(), response, PASS);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse unlimitedRoute(Requests requests) throws Exception {
+        MockHttpServletRequest request = requests.next();
+        request.setMethod("GET");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, PASS);
+        request.setMethod("POST");
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse throttled(Requests requests) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        throttledFilter.doFilter(requests.next(), response, PASS);
+        return response;
+    }
+
+    private static RateLimitFilter filter(int capacity) {
+        return new RateLimitFilter(new RateLimitProperties(true, 100_000, List.of(
+                new RateLimitProperties.Rule("login", "POST", "/api/auth/login",
+                        RateLimitProperties.Key.IP, capacity, Duration.ofMinutes(1)))),
+                new SimpleMeterRegistry());
+    }
+}
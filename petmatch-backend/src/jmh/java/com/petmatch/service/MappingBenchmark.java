@@ -0,0 +1,63 @@
+package com.petmatch.service;
+
+import com.petmatch.dto.AdoptionResponseDTO;
+import com.petmatch.dto.PetResponseDTO;
+import com.petmatch.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private Pet pet;
+    private AdoptionRequest request;
+
+    @Setup
+    public void setUp() {
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .name("Gabriela")
+                .email("gaby@example.com")
+                .build();
+
+        pet = Pet.builder()
+                .id(UUID.randomUUID())
+                .name("Lobby")
+                .age(3)
+                .type(PetType.DOG)
+                .breed("Labrador")
+                .gender("Male")
+                .description("Very friendly and affectionate")
+                .status(PetStatus.AVAILABLE)
+                .createdAt(LocalDateTime.now())
+                .owner(user)
+                .build();
+
+        request = AdoptionRequest.builder()
+                .id(UUID.randomUUID())
+                .applicant(user)
+                .pet(pet)
+                .status(AdoptionStatus.PENDING)
+                .message("I want to adopt Lobby.")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public PetResponseDTO petToResponse() {
+        return PetResponseDTO.from(pet);
+    }
+
+    @Benchmark
+    public AdoptionResponseDTO adoptionRequestToResponse() {
+        return AdoptionResponseDTO.from(request);
+    }
+}
@@ -0,0 +1,50 @@
+package com.petmatch.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login throughput (BCrypt verify) through {@link PasswordHasher} as the pool grows.
+ * Callers run on {@code Threads.MAX} (one per core), so ops/s should rise with
+ * poolThreads until it reaches the core count and flatten after that; raising the
+ * strength by one halves throughput at every pool size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(Threads.MAX)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int poolThreads;
+
+    @Param({"10", "12"})
+    public int strength;
+
+    private PasswordHasher passwordHasher;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("secret123");
+        passwordHasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), poolThreads, 1024, Duration.ofMinutes(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return passwordHasher.matches("secret123", hash);
+    }
+}
@@ -0,0 +1,73 @@
+package com.petmatch.service;
+
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-pet query latency over a synthetic catalog. Pets are grouped into shelters
+ * that share one location, and the shelters are clustered around a few cities, so a
+ * query from a city centre has dense neighbourhoods to work through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PetGeoIndexBenchmark {
+
+    private static final double[][] CITIES = {
+            {-34.60, -58.38}, {-31.42, -64.18}, {-32.95, -60.65}, {-34.90, -56.16}, {-23.55, -46.63}};
+    private static final int PETS_PER_SHELTER = 50;
+
+    @Param({"2000000"})
+    public int pets;
+
+    private PetGeoIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new PetGeoIndex(null);
+        Random random = new Random(42);
+        PetType[] types = PetType.values();
+        PetStatus[] statuses = PetStatus.values();
+        double latitude = 0;
+        double longitude = 0;
+        for (int i = 0; i < pets; i++) {
+            if (i % PETS_PER_SHELTER == 0) {
+                double[] city = CITIES[random.nextInt(CITIES.length)];
+                latitude = city[0] + random.nextGaussian() * 0.5;
+                longitude = city[1] + random.nextGaussian() * 0.5;
+            }
+            index.index(Pet.builder()
+                    .id(UUID.randomUUID())
+                    .type(types[random.nextInt(types.length)])
+                    .status(statuses[random.nextInt(statuses.length)])
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<PetGeoIndex.Hit> cityCentre() {
+        return index.nearest(-34.60, -58.38, 25, null, null, 20);
+    }
+
+    @Benchmark
+    public List<PetGeoIndex.Hit> cityCentreFiltered() {
+        return index.nearest(-34.60, -58.38, 25, PetType.CAT, PetStatus.AVAILABLE, 20);
+    }
+
+    @Benchmark
+    public List<PetGeoIndex.Hit> countryside() {
+        return index.nearest(-38.00, -63.00, 200, PetType.DOG, PetStatus.AVAILABLE, 20);
+    }
+}
@@ -0,0 +1,72 @@
+package com.petmatch.service;
+
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the embedded search index over a synthetic catalog. Descriptions
+ * draw from a small vocabulary, so common words have long posting lists and the
+ * numbers lean towards the worst case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PetSearchIndexBenchmark {
+
+    private static final String[] BREEDS = {"Labrador", "Golden retriever", "Poodle", "Beagle", "Siamese",
+            "Persian", "Bulldog", "Dachshund", "Husky", "Maine coon", "Parakeet", "Boxer"};
+    private static final String[] WORDS = {"friendly", "calm", "playful", "small", "large", "energetic",
+            "shy", "loyal", "gentle", "curious", "quiet", "smart", "house", "trained", "loves", "children",
+            "walks", "cuddles", "senior", "puppy", "kitten", "garden", "apartment", "vaccinated"};
+
+    @Param({"100000"})
+    public int pets;
+
+    private PetSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new PetSearchIndex(null);
+        Random random = new Random(42);
+        PetType[] types = PetType.values();
+        PetStatus[] statuses = PetStatus.values();
+        for (int i = 0; i < pets; i++) {
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 8; w++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            index.index(Pet.builder()
+                    .id(UUID.randomUUID())
+                    .name("Pet" + Integer.toString(i, 36))
+                    .type(types[random.nextInt(types.length)])
+                    .status(statuses[random.nextInt(statuses.length)])
+                    .breed(BREEDS[random.nextInt(BREEDS.length)])
+                    .description(description.toString())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public PetSearchIndex.SearchResult selectiveQuery() {
+        return index.search("husky", PetType.DOG, PetStatus.AVAILABLE, 20);
+    }
+
+    @Benchmark
+    public PetSearchIndex.SearchResult multiWordPrefixQuery() {
+        return index.search("small friendly lab", null, null, 20);
+    }
+
+    @Benchmark
+    public PetSearchIndex.SearchResult typoQuery() {
+        return index.search("dachsund", null, null, 20);
+    }
+}
@@ -0,0 +1,62 @@
+package com.petmatch.config;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets at most {@code maxWaiting} threads wait for a pooled connection at once.
+ * Anyone beyond that is turned away straight away with a
+ * {@link SQLTransientConnectionException} instead of parking on the pool for the
+ * whole connection timeout.
+ * <p>
+ * With platform threads Tomcat's worker pool already bounds the line. With virtual
+ * threads nothing does, and a burst would leave thousands of request threads queued
+ * on Hikari, each holding its request until it times out.
+ */
+class BoundedWaitDataSource extends DelegatingDataSource {
+
+    private final int maxWaiting;
+    private final Counter rejected;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    BoundedWaitDataSource(DataSource target, int maxWaiting, Counter rejected) {
+        super(target);
+        this.maxWaiting = maxWaiting;
+        this.rejected = rejected;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        enter();
+        try {
+            return super.getConnection();
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        enter();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void enter() throws SQLException {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new SQLTransientConnectionException(
+                    "More than " + maxWaiting + " callers are already waiting for a database connection");
+        }
+    }
+}
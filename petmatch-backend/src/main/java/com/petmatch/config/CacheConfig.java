@@ -0,0 +1,17 @@
+package com.petmatch.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are Caffeine-backed and declared in application.properties
+ * (spring.cache.cache-names) so Boot can bind their hit/miss statistics
+ * to the meter registry at startup.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PETS = "pets";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+}
@@ -0,0 +1,86 @@
+package com.petmatch.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Request and {@code @Async} execution mode. With spring.threads.virtual.enabled=true
+ * on Java 21+, Boot runs Tomcat requests and the application task executor on
+ * virtual threads; otherwise both use the usual platform thread pools.
+ * <p>
+ * Virtual threads need Java 21. The build still targets 17, so asking for them on
+ * an older runtime stops startup instead of quietly falling back to platform threads.
+ * <p>
+ * In virtual mode Tomcat no longer caps concurrency at its worker pool size, so
+ * the Hikari pool becomes the throttle. It is kept small and fails fast
+ * (see spring.datasource.hikari.* in application.properties) instead of being
+ * grown to match the request count, which would only move the queue into Postgres.
+ * How many threads may queue for it is bounded as well, see {@link BoundedWaitDataSource}.
+ * <p>
+ * Event stream sends get their own executor, so heartbeats for tens of thousands of
+ * streams never run into the queue limit of the application task executor.
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ExecutionConfig {
+
+    public ExecutionConfig(Environment environment) {
+        if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, but this is Java "
+                    + Runtime.version() + "; unset VIRTUAL_THREADS_ENABLED or upgrade the runtime");
+        }
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> executionModeLogger(Environment environment) {
+        return event -> log.info("Request execution mode: {} threads",
+                Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform");
+    }
+
+    @Bean
+    public static BeanPostProcessor boundedConnectionWait(ObjectProvider<MeterRegistry> meterRegistry,
+                                                         @Value("${petmatch.datasource.max-waiting:200}") int maxWaiting) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource dataSource)) {
+                    return bean;
+                }
+                Counter rejected = Counter.builder("petmatch.datasource.rejected")
+                        .description("Connection requests turned away because too many callers were already waiting")
+                        .register(meterRegistry.getObject());
+                return new BoundedWaitDataSource(dataSource, maxWaiting, rejected);
+            }
+        };
+    }
+
+    /**
+     * Writes queued events out to their streams. Each stream has at most one drain
+     * task pending, so the unbounded queue never holds more tasks than open streams.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor notificationExecutor(@Value("${petmatch.notifications.sender-threads:16}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("notify-");
+        return executor;
+    }
+}
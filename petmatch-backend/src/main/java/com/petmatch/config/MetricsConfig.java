@@ -0,0 +1,20 @@
+package com.petmatch.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Records a timer for every method of a class annotated with {@code @Timed},
+     * tagged with class, method and exception. Percentiles and histogram buckets
+     * are configured by name in application.properties.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
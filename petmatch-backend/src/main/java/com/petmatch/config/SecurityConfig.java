@@ -1,8 +1,14 @@
 package com.petmatch.config;
 
 import com.petmatch.security.JwtAuthFilter;
+import com.petmatch.security.RateLimitFilter;
+import com.petmatch.security.RateLimitProperties;
 import com.petmatch.service.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,22 +20,37 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import lombok.RequiredArgsConstructor;
 
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsServiceImpl userDetailsService;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   @Value("${server.port:8080}") int serverPort,
+                                                   @Value("${management.server.port:-1}") int managementPort) throws Exception {
+        boolean separateManagementPort = managementPort > 0 && managementPort != serverPort;
         return http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Completing an event stream or streamed download re-dispatches the
+                        // request; it was already authorized on the way in.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        // Actuator lives on its own port, which is only reachable from
+                        // inside the deployment (e.g. by the Prometheus scraper). Only its
+                        // endpoints are opened there, and never when it shares the API port.
+                        .requestMatchers(new AndRequestMatcher(
+                                request -> separateManagementPort && request.getLocalPort() == managementPort,
+                                EndpointRequest.toAnyEndpoint())).permitAll()
                         .requestMatchers(
                                 "/api/users/signup",
                                 "/api/auth/login",
@@ -39,17 +60,19 @@ public class SecurityConfig {
                                 "/swagger-resources/**",
                                 "/webjars/**",
                                 "/favicon.ico",
+                                "/actuator/health",
                                 "/error").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthFilter.class)
                 .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${petmatch.security.bcrypt.strength:10}") int strength){
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -3,11 +3,15 @@ package com.petmatch.controller;
 import com.petmatch.dto.AdoptionRequestDTO;
 import com.petmatch.dto.AdoptionResponseDTO;
 import com.petmatch.model.AdoptionStatus;
+import com.petmatch.service.AdoptionNotificationService;
 import com.petmatch.service.AdoptionRequestService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -18,6 +22,7 @@ import java.util.UUID;
 public class AdoptionRequestController {
 
     private final AdoptionRequestService adoptionService;
+    private final AdoptionNotificationService notificationService;
 
     @PostMapping
     public ResponseEntity<AdoptionResponseDTO> createRequest(@RequestBody @Valid AdoptionRequestDTO adoptionRequestDTO) {
@@ -26,8 +31,14 @@ public class AdoptionRequestController {
     }
 
     @GetMapping("/mine")
-    public ResponseEntity<List<AdoptionResponseDTO>> getUserRequests() {
-        return ResponseEntity.ok(adoptionService.getUserAdoptionRequests());
+    public ResponseEntity<List<AdoptionResponseDTO>> getUserRequests(WebRequest request) {
+        return HttpCaching.conditional(request, adoptionService.getUserAdoptionRequestsETag(), HttpCaching.REVALIDATE,
+                adoptionService::getUserAdoptionRequests);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatusChanges() {
+        return notificationService.subscribe();
     }
 
     @PutMapping("/{id}/status")
@@ -43,9 +54,9 @@ public class AdoptionRequestController {
     }
 
     @GetMapping("/received")
-    public ResponseEntity<List<AdoptionResponseDTO>> getReceivedRequests() {
-        List<AdoptionResponseDTO> receivedRequests = adoptionService.getAdoptionRequestsForMyPets();
-        return ResponseEntity.ok(receivedRequests);
+    public ResponseEntity<List<AdoptionResponseDTO>> getReceivedRequests(WebRequest request) {
+        return HttpCaching.conditional(request, adoptionService.getAdoptionRequestsForMyPetsETag(), HttpCaching.REVALIDATE,
+                adoptionService::getAdoptionRequestsForMyPets);
     }
 
     @GetMapping("/pet/{petId}")
@@ -2,6 +2,7 @@ package com.petmatch.controller;
 
 import com.petmatch.model.User;
 import com.petmatch.dto.LoginRequestDTO;
+import com.petmatch.exception.ServiceOverloadedException;
 import com.petmatch.security.JwtUtil;
 import com.petmatch.service.AuthService;
 import jakarta.validation.Valid;
@@ -28,9 +29,11 @@ public class AuthController {
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDTO loginRequestDTO){
         try {
             User user = authService.authenticate(loginRequestDTO);
-            String token = jwtUtil.generateToken(user.getEmail());
+            String token = jwtUtil.generateToken(user);
 
             return ResponseEntity.ok(Map.of("token", token));
+        } catch (ServiceOverloadedException ex) {
+            throw ex;
         } catch (RuntimeException ex) {
             return ResponseEntity.status(401).body(Map.of("error", ex.getMessage()));
         }
@@ -0,0 +1,46 @@
+package com.petmatch.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for polled read endpoints. The ETag is computed first
+ * from a cheap version lookup; the body is only loaded and serialized when the
+ * client's If-None-Match doesn't match.
+ */
+final class HttpCaching {
+
+    // Catalog pages can be reused for a few seconds, then revalidated with the ETag.
+    static final CacheControl CATALOG = CacheControl.maxAge(Duration.ofSeconds(10)).cachePrivate();
+
+    // Single pets and per-user listings are revalidated on every use.
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private HttpCaching() {
+    }
+
+    static <T> ResponseEntity<T> conditional(WebRequest request, String etag, CacheControl cacheControl,
+                                             Supplier<T> body) {
+        if (etag == null) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body.get());
+    }
+}
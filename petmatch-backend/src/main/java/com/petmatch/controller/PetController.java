@@ -1,17 +1,35 @@
 package com.petmatch.controller;
 
+import com.petmatch.dto.NearbyPetDTO;
+import com.petmatch.dto.PetImportReportDTO;
+import com.petmatch.dto.PetPageResponseDTO;
 import com.petmatch.dto.PetRequestDTO;
 import com.petmatch.dto.PetResponseDTO;
+import com.petmatch.dto.PetSearchCriteria;
+import com.petmatch.dto.PetSearchResponseDTO;
 import com.petmatch.dto.PetStatusUpdateDTO;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.service.PetExportService;
+import com.petmatch.service.PetImportService;
 import com.petmatch.service.PetService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.annotation.DeclareError;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/pets")
@@ -19,6 +37,10 @@ import java.util.UUID;
 public class PetController {
 
     private final PetService petService;
+    private final PetExportService petExportService;
+    private final PetImportService petImportService;
+
+    private static final String TEXT_CSV = "text/csv";
 
 
     @PostMapping
@@ -27,16 +49,71 @@ public class PetController {
         return ResponseEntity.status(201).body(createdPet);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PetImportReportDTO> importPetsFromJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(petImportService.importJson(body));
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    public ResponseEntity<PetImportReportDTO> importPetsFromCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(petImportService.importCsv(body));
+    }
+
     @GetMapping
-    public ResponseEntity<List<PetResponseDTO>> getAllPets(){
-        List<PetResponseDTO> pets = petService.getAllPets();
-        return ResponseEntity.ok(pets);
+    public ResponseEntity<PetPageResponseDTO> getPets(@Valid PetSearchCriteria criteria,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int size,
+                                                      WebRequest request){
+        return HttpCaching.conditional(request, petService.getCatalogETag(), HttpCaching.CATALOG,
+                () -> petService.searchPets(criteria, cursor, size));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPets(@RequestParam(defaultValue = "false") boolean gzip){
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192);
+                petExportService.exportPets(gzipStream);
+                gzipStream.finish();
+            } else {
+                petExportService.exportPets(outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<PetSearchResponseDTO> searchPets(@RequestParam("q") @NotBlank @Size(max = 200) String query,
+                                                           @RequestParam(required = false) PetType type,
+                                                           @RequestParam(required = false) PetStatus status,
+                                                           @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(petService.searchPetsByText(query, type, status, size));
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyPetDTO>> getNearbyPets(@RequestParam double lat,
+                                                            @RequestParam double lon,
+                                                            @RequestParam(defaultValue = "25") double radiusKm,
+                                                            @RequestParam(required = false) PetType type,
+                                                            @RequestParam(required = false) PetStatus status,
+                                                            @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(petService.findNearbyPets(lat, lon, radiusKm, type, status, size));
+    }
+
+    @GetMapping("/recommended")
+    public ResponseEntity<List<PetResponseDTO>> getRecommendedPets(@RequestParam(defaultValue = "10") int limit){
+        return ResponseEntity.ok(petService.getRecommendedPets(limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PetResponseDTO> getPetById(@PathVariable UUID id){
-        PetResponseDTO pet = petService.getPetById(id);
-        return ResponseEntity.ok(pet);
+    public ResponseEntity<PetResponseDTO> getPetById(@PathVariable UUID id, WebRequest request){
+        return HttpCaching.conditional(request, petService.getPetETag(id), HttpCaching.REVALIDATE,
+                () -> petService.getPetById(id));
     }
 
     @PutMapping("/{id}")
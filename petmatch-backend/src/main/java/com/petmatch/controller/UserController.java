@@ -1,11 +1,12 @@
 package com.petmatch.controller;
 
 import com.petmatch.dto.PetResponseDTO;
+import com.petmatch.dto.ShelterStatsDTO;
 import com.petmatch.dto.UserRequestDTO;
 import com.petmatch.dto.UserResponseDTO;
-import com.petmatch.model.User;
-import com.petmatch.repository.UserRepository;
+import com.petmatch.security.AuthenticatedUser;
 import com.petmatch.service.PetService;
+import com.petmatch.service.ShelterStatsService;
 import com.petmatch.service.UserService;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,8 +24,8 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
-    private final UserRepository userRepository;
     private final PetService petService;
+    private final ShelterStatsService shelterStatsService;
 
     @PostMapping("/signup")
     public ResponseEntity<UserResponseDTO> registerUser(@RequestBody @Valid UserRequestDTO userDto){
@@ -36,20 +37,11 @@ public class UserController {
     public ResponseEntity<?> getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+        // Everything the response holds travels in the token, so the database isn't asked.
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return ResponseEntity.ok(UserResponseDTO.from(user));
         }
-
-        String email = authentication.getName();
-
-        return userRepository.findByEmail(email)
-                .map(user -> ResponseEntity.ok(Map.of(
-                        "id", user.getId(),
-                        "name", user.getName(),
-                        "email", user.getEmail(),
-                        "role", user.getRole()
-                )))
-                .orElse(ResponseEntity.status(404).body(Map.of("error", "User not found")));
+        return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
     }
 
     @GetMapping("/me/pets")
@@ -58,10 +50,20 @@ public class UserController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         Object principal = authentication.getPrincipal();
 
-        if(principal instanceof User user) {
-            List<PetResponseDTO> myPets = petService.getPetsByUserId(user.getId());
+        if(principal instanceof AuthenticatedUser user) {
+            List<PetResponseDTO> myPets = petService.getPetsByUserId(user.id());
             return ResponseEntity.ok(myPets);
         }
         return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
     }
+
+    @GetMapping("/me/stats")
+    public ResponseEntity<ShelterStatsDTO> getMyStats() {
+        return ResponseEntity.ok(shelterStatsService.getStatsForCurrentUser());
+    }
+
+    @PostMapping("/me/stats/rebuild")
+    public ResponseEntity<ShelterStatsDTO> rebuildMyStats() {
+        return ResponseEntity.ok(shelterStatsService.rebuildForCurrentUser());
+    }
 }
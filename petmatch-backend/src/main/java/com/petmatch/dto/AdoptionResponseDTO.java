@@ -1,24 +1,44 @@
 package com.petmatch.dto;
 
+import com.petmatch.model.AdoptionRequest;
 import com.petmatch.model.AdoptionStatus;
-import lombok.Builder;
-import lombok.Data;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-@Data
-@Builder
-public class AdoptionResponseDTO {
+public record AdoptionResponseDTO(UUID id,
+                                  UUID petId,
+                                  String petName,
+                                  UUID applicantId,
+                                  String applicantName,
+                                  String message,
+                                  AdoptionStatus status,
+                                  LocalDateTime createdAt) {
 
-    private UUID id;
-    private UUID petId;
-    private String petName;
+    /**
+     * Reads the pet and applicant associations, so both must be loaded or loadable.
+     */
+    public static AdoptionResponseDTO from(AdoptionRequest request) {
+        return from(request, request.getApplicant().getName());
+    }
 
-    private UUID applicantId;
-    private String applicantName;
+    /**
+     * For a request whose applicant is an unloaded reference: the applicant's name is
+     * supplied by the caller and only the pet is read.
+     */
+    public static AdoptionResponseDTO from(AdoptionRequest request, String applicantName) {
+        return new AdoptionResponseDTO(
+                request.getId(),
+                request.getPet().getId(),
+                request.getPet().getName(),
+                request.getApplicant().getId(),
+                applicantName,
+                request.getMessage(),
+                request.getStatus(),
+                request.getCreatedAt());
+    }
 
-    private String message;
-    private AdoptionStatus status;
-    private LocalDateTime createdAt;
+    public AdoptionResponseDTO withStatus(AdoptionStatus newStatus) {
+        return new AdoptionResponseDTO(id, petId, petName, applicantId, applicantName, message, newStatus, createdAt);
+    }
 }
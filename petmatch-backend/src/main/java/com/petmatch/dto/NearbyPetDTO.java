@@ -0,0 +1,4 @@
+package com.petmatch.dto;
+
+public record NearbyPetDTO(PetResponseDTO pet, double distanceKm) {
+}
@@ -0,0 +1,15 @@
+package com.petmatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PetImportErrorDTO {
+
+    // 1-based position of the record in the upload (CSV header not counted).
+    private long row;
+    private List<String> messages;
+}
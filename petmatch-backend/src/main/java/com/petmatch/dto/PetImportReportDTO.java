@@ -0,0 +1,18 @@
+package com.petmatch.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PetImportReportDTO {
+
+    private long received;
+    private long imported;
+    private long rejected;
+    private List<PetImportErrorDTO> errors;
+    // True when more rows failed than the report lists.
+    private boolean errorsTruncated;
+}
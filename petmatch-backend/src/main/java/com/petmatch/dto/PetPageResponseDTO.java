@@ -0,0 +1,16 @@
+package com.petmatch.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PetPageResponseDTO {
+
+    private List<PetResponseDTO> items;
+
+    // Null when this is the last page.
+    private String nextCursor;
+}
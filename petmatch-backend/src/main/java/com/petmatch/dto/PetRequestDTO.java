@@ -1,6 +1,9 @@
 package com.petmatch.dto;
 
 import com.petmatch.model.PetType;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -25,4 +28,17 @@ public class PetRequestDTO {
 
     private  String description;
 
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double latitude;
+
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double longitude;
+
+    @AssertTrue(message = "latitude and longitude must be given together")
+    private boolean isLocationComplete() {
+        return (latitude == null) == (longitude == null);
+    }
+
 }
@@ -1,22 +1,30 @@
 package com.petmatch.dto;
 
+import com.petmatch.model.Pet;
 import com.petmatch.model.PetType;
-import lombok.Builder;
-import lombok.Data;
 
 import java.util.UUID;
 
-@Data
-@Builder
-public class PetResponseDTO {
-
-    private UUID id;
-    private String name;
-    private PetType type;
-    private String breed;
-    private String gender;
-    private Integer age;
-    private String description;
-
+public record PetResponseDTO(UUID id,
+                             String name,
+                             PetType type,
+                             String breed,
+                             String gender,
+                             Integer age,
+                             String description,
+                             Double latitude,
+                             Double longitude) {
 
+    public static PetResponseDTO from(Pet pet) {
+        return new PetResponseDTO(
+                pet.getId(),
+                pet.getName(),
+                pet.getType(),
+                pet.getBreed(),
+                pet.getGender(),
+                pet.getAge(),
+                pet.getDescription(),
+                pet.getLatitude(),
+                pet.getLongitude());
+    }
 }
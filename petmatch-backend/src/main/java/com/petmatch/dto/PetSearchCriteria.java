@@ -0,0 +1,24 @@
+package com.petmatch.dto;
+
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class PetSearchCriteria {
+
+    private PetType type;
+
+    private PetStatus status;
+
+    @Min(0)
+    private Integer minAge;
+
+    @Min(0)
+    private Integer maxAge;
+
+    private String breed;
+
+    private String gender;
+}
@@ -0,0 +1,19 @@
+package com.petmatch.dto;
+
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class PetSearchResponseDTO {
+
+    private List<PetResponseDTO> items;
+    private long total;
+    private Map<PetType, Long> typeCounts;
+    private Map<PetStatus, Long> statusCounts;
+}
@@ -0,0 +1,22 @@
+package com.petmatch.dto;
+
+import com.petmatch.model.AdoptionStatus;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class ShelterStatsDTO {
+
+    private long totalPets;
+    private Map<PetStatus, Long> petsByStatus;
+    private Map<PetType, Long> petsByType;
+    private Map<AdoptionStatus, Long> requestsByStatus;
+    private long adoptions;
+    // Mean time from listing a pet to approving its adoption; null until the first adoption.
+    private Long averageSecondsToAdoption;
+}
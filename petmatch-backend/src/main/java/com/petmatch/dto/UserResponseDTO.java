@@ -1,17 +1,18 @@
 package com.petmatch.dto;
 
 import com.petmatch.model.Role;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import com.petmatch.model.User;
+import com.petmatch.security.AuthenticatedUser;
 
 import java.util.UUID;
 
-@Data
-@AllArgsConstructor
-public class UserResponseDTO {
-    private UUID id;
-    private String name;
-    private String email;
-    private Role role;
+public record UserResponseDTO(UUID id, String name, String email, Role role) {
 
+    public static UserResponseDTO from(User user) {
+        return new UserResponseDTO(user.getId(), user.getName(), user.getEmail(), user.getRole());
+    }
+
+    public static UserResponseDTO from(AuthenticatedUser user) {
+        return new UserResponseDTO(user.id(), user.name(), user.email(), user.role());
+    }
 }
@@ -0,0 +1,13 @@
+package com.petmatch.exception;
+
+/**
+ * Thrown when an adoption request can no longer be decided as asked because it or
+ * its pet has already moved on, e.g. approving a request that was decided or a pet
+ * that was adopted in the meantime. Mapped to 409.
+ */
+public class AdoptionConflictException extends RuntimeException {
+
+    public AdoptionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.petmatch.exception;
+
+public class DuplicateAdoptionRequestException extends RuntimeException {
+
+    public DuplicateAdoptionRequestException() {
+        super("You have already requested to adopt this pet.");
+    }
+}
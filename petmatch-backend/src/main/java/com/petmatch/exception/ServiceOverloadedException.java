@@ -0,0 +1,12 @@
+package com.petmatch.exception;
+
+/**
+ * Thrown when a bounded resource (e.g. the password hashing pool) is saturated
+ * and the request is shed instead of queued. Mapped to 503 with Retry-After.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -6,13 +6,20 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "adoption_requests")
+@Table(name = "adoption_requests", uniqueConstraints = {
+        // One request per adopter and pet. Its index also serves lookups by applicant.
+        @UniqueConstraint(name = AdoptionRequest.APPLICANT_PET_CONSTRAINT, columnNames = {"applicant_id", "pet_id"})
+}, indexes = {
+        @Index(name = "idx_adoption_requests_pet_id_status", columnList = "pet_id, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class AdoptionRequest {
 
+    public static final String APPLICANT_PET_CONSTRAINT = "uk_adoption_requests_applicant_pet";
+
     @Id
     @GeneratedValue
     private UUID id;
@@ -28,15 +35,27 @@ public class AdoptionRequest {
     @Column(length = 1000)
     private String message;
 
-    @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private AdoptionStatus status;
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
     }
 }
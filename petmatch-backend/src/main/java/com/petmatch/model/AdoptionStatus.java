@@ -1,7 +1,18 @@
 package com.petmatch.model;
 
-public enum AdoptionStatus {
-    PENDING,
-    APPROVED,
-    REJECTED
-}
\ No newline at end of file
+public enum AdoptionStatus implements CodedEnum {
+    PENDING(0),
+    APPROVED(1),
+    REJECTED(2);
+
+    private final short code;
+
+    AdoptionStatus(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
+}
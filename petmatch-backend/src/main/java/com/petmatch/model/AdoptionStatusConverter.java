@@ -0,0 +1,11 @@
+package com.petmatch.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class AdoptionStatusConverter extends CodedEnumConverter<AdoptionStatus> {
+
+    public AdoptionStatusConverter() {
+        super(AdoptionStatus.class);
+    }
+}
@@ -0,0 +1,10 @@
+package com.petmatch.model;
+
+/**
+ * An enum stored as a small integer code instead of its name or ordinal. Codes are
+ * part of the schema: never change or reuse one, and give new constants new codes.
+ */
+public interface CodedEnum {
+
+    short code();
+}
@@ -0,0 +1,45 @@
+package com.petmatch.model;
+
+import jakarta.persistence.AttributeConverter;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Maps a {@link CodedEnum} to its code in a {@code smallint} column.
+ */
+public abstract class CodedEnumConverter<E extends Enum<E> & CodedEnum> implements AttributeConverter<E, Short> {
+
+    private final Class<E> type;
+    private final E[] byCode;
+
+    @SuppressWarnings("unchecked")
+    protected CodedEnumConverter(Class<E> type) {
+        this.type = type;
+        E[] constants = type.getEnumConstants();
+        int maxCode = Arrays.stream(constants).mapToInt(CodedEnum::code).max().orElse(-1);
+        this.byCode = (E[]) Array.newInstance(type, maxCode + 1);
+        for (E constant : constants) {
+            if (byCode[constant.code()] != null) {
+                throw new IllegalStateException("Duplicate code " + constant.code() + " in " + type.getSimpleName());
+            }
+            byCode[constant.code()] = constant;
+        }
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(E value) {
+        return value == null ? null : value.code();
+    }
+
+    @Override
+    public E convertToEntityAttribute(Short code) {
+        if (code == null) {
+            return null;
+        }
+        if (code < 0 || code >= byCode.length || byCode[code] == null) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " code " + code);
+        }
+        return byCode[code];
+    }
+}
@@ -0,0 +1,7 @@
+package com.petmatch.model;
+
+public enum OutboxEventType {
+    PET_CHANGED,
+    ADOPTION_REQUESTED,
+    ADOPTION_STATUS_CHANGED
+}
@@ -6,12 +6,18 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "pets")
+@Table(name = "pets", indexes = {
+        // The partial indexes over available pets are only in V3__workload_indexes.sql.
+        @Index(name = "idx_pets_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_pets_status_type_created_at_id", columnList = "status, type, created_at, id"),
+        @Index(name = "idx_pets_user_id", columnList = "user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,7 +25,7 @@ import java.util.UUID;
 public class Pet {
 
     @Id
-    @GeneratedValue
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(nullable = false)
@@ -38,13 +44,23 @@ public class Pet {
 
     private String description;
 
-    @Enumerated(EnumType.STRING)
+    private Double latitude;
+
+    private Double longitude;
+
     @Column(nullable = false)
     private PetStatus status;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @JsonIgnoreProperties({"pets"})
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
@@ -53,6 +69,12 @@ public class Pet {
     @PrePersist
     protected void onCreate(){
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate(){
+        this.updatedAt = LocalDateTime.now();
     }
 
 
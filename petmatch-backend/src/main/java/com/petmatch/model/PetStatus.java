@@ -1,7 +1,18 @@
 package com.petmatch.model;
 
-public enum PetStatus {
-    AVAILABLE,
-    PENDING,
-    ADOPTED
-}
\ No newline at end of file
+public enum PetStatus implements CodedEnum {
+    AVAILABLE(0),
+    PENDING(1),
+    ADOPTED(2);
+
+    private final short code;
+
+    PetStatus(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
+}
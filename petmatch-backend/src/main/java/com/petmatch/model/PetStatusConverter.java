@@ -0,0 +1,11 @@
+package com.petmatch.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class PetStatusConverter extends CodedEnumConverter<PetStatus> {
+
+    public PetStatusConverter() {
+        super(PetStatus.class);
+    }
+}
@@ -1,9 +1,20 @@
 package com.petmatch.model;
 
-public enum PetType {
-    DOG,
-    CAT,
-    BIRD,
-    REPTILE,
-    OTHER
+public enum PetType implements CodedEnum {
+    DOG(0),
+    CAT(1),
+    BIRD(2),
+    REPTILE(3),
+    OTHER(4);
+
+    private final short code;
+
+    PetType(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
 }
@@ -0,0 +1,11 @@
+package com.petmatch.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class PetTypeConverter extends CodedEnumConverter<PetType> {
+
+    public PetTypeConverter() {
+        super(PetType.class);
+    }
+}
@@ -0,0 +1,20 @@
+package com.petmatch.model;
+
+/**
+ * Collections whose readers can tell whether anything in them changed by reading
+ * one number: the last value of a sequence that moves on every committed write.
+ */
+public enum ResourceVersion {
+
+    PETS("pets_version_seq");
+
+    private final String sequence;
+
+    ResourceVersion(String sequence) {
+        this.sequence = sequence;
+    }
+
+    public String sequence() {
+        return sequence;
+    }
+}
@@ -1,9 +1,19 @@
 package com.petmatch.model;
 
-public enum Role {
-    USER,
-    ADMIN,
-    ADOPTER,
-    SHELTER
-}
+public enum Role implements CodedEnum {
+    USER(0),
+    ADMIN(1),
+    ADOPTER(2),
+    SHELTER(3);
+
+    private final short code;
 
+    Role(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
+}
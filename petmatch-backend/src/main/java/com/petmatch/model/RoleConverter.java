@@ -0,0 +1,11 @@
+package com.petmatch.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class RoleConverter extends CodedEnumConverter<Role> {
+
+    public RoleConverter() {
+        super(Role.class);
+    }
+}
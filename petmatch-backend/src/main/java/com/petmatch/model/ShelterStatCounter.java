@@ -0,0 +1,47 @@
+package com.petmatch.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * One pre-aggregated number on a shelter's dashboard, such as how many of its pets
+ * are available. Adjusted by a delta in the same transaction as the write it counts.
+ */
+@Entity
+@Table(name = "shelter_stat_counters")
+@IdClass(ShelterStatCounter.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShelterStatCounter {
+
+    @Id
+    @Column(name = "owner_id")
+    private UUID ownerId;
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private long amount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID ownerId;
+        private String name;
+    }
+}
@@ -0,0 +1,36 @@
+package com.petmatch.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version 7 UUIDs (RFC 9562): a millisecond timestamp followed by random bits.
+ * <p>
+ * Ids are still generated in the JVM, so inserts can be batched, but new rows land
+ * at the right-hand edge of the primary key index instead of on a random page,
+ * which keeps bulk inserts from splitting pages all over the index. A 12-bit
+ * counter keeps ids from one node strictly increasing within the same millisecond.
+ */
+public class TimeOrderedUuidGenerator implements UuidValueGenerator {
+
+    private static final AtomicLong LAST_STAMP = new AtomicLong();
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return next();
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        // millis << 12 | counter; runs ahead of the clock only if 4096 ids are drawn in one millisecond.
+        long stamp = LAST_STAMP.updateAndGet(last -> Math.max(last + 1, now));
+
+        long mostSigBits = (stamp >>> 12) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -1,25 +1,90 @@
 package com.petmatch.repository;
 
+import com.petmatch.dto.AdoptionResponseDTO;
 import com.petmatch.model.AdoptionRequest;
-import com.petmatch.model.Pet;
-import com.petmatch.model.User;
+import com.petmatch.model.AdoptionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface AdoptionRequestRepository extends JpaRepository<AdoptionRequest, UUID> {
-    List<AdoptionRequest> findByApplicant(User applicant);
 
-    List<AdoptionRequest> findByPetOwner(User owner);
+    // Listings project straight into the response DTO so pet and applicant are
+    // joined in the same statement instead of being lazily loaded row by row.
+    String RESPONSE_PROJECTION = "SELECT new com.petmatch.dto.AdoptionResponseDTO(" +
+            "r.id, p.id, p.name, a.id, a.name, r.message, r.status, r.createdAt) " +
+            "FROM AdoptionRequest r JOIN r.pet p JOIN r.applicant a ";
 
-    List<AdoptionRequest> findByPetId(UUID petId);
+    @Query(RESPONSE_PROJECTION + "WHERE a.id = :applicantId ORDER BY r.createdAt DESC")
+    List<AdoptionResponseDTO> findResponsesByApplicantId(@Param("applicantId") UUID applicantId);
 
-    boolean existsByApplicantAndPet(User applicant, Pet pet);
+    @Query(RESPONSE_PROJECTION + "WHERE p.owner.id = :ownerId ORDER BY r.createdAt DESC")
+    List<AdoptionResponseDTO> findResponsesByPetOwnerId(@Param("ownerId") UUID ownerId);
 
-    List<AdoptionRequest> findByPetAndIdNot(Pet pet, UUID id);
+    @Query(RESPONSE_PROJECTION + "WHERE p.id = :petId ORDER BY r.createdAt DESC")
+    List<AdoptionResponseDTO> findResponsesByPetId(@Param("petId") UUID petId);
 
+    // Fingerprints of the listings above: any insert, update or delete of a request,
+    // or an edit of one of its pets, changes the count, the latest timestamp or the
+    // version sum. Cheap enough to run on every conditional GET.
+    String FINGERPRINT_PROJECTION = "SELECT new com.petmatch.repository.ListFingerprint(" +
+            "COUNT(r), MAX(r.updatedAt), MAX(p.updatedAt), SUM(r.version) + SUM(p.version)) " +
+            "FROM AdoptionRequest r JOIN r.pet p ";
 
+    @Query(FINGERPRINT_PROJECTION + "WHERE r.applicant.id = :applicantId")
+    ListFingerprint fingerprintByApplicantId(@Param("applicantId") UUID applicantId);
 
+    @Query(FINGERPRINT_PROJECTION + "WHERE p.owner.id = :ownerId")
+    ListFingerprint fingerprintByPetOwnerId(@Param("ownerId") UUID ownerId);
 
+    /**
+     * Whether the applicant has a request for the pet, answered from the unique
+     * (applicant, pet) index.
+     */
+    @Query("SELECT COUNT(r) > 0 FROM AdoptionRequest r WHERE r.applicant.id = :applicantId AND r.pet.id = :petId")
+    boolean existsByApplicantIdAndPetId(@Param("applicantId") UUID applicantId, @Param("petId") UUID petId);
+
+    @Query("SELECT r FROM AdoptionRequest r JOIN FETCH r.pet WHERE r.applicant.id = :applicantId")
+    List<AdoptionRequest> findWithPetByApplicantId(@Param("applicantId") UUID applicantId);
+
+    /**
+     * Rejects every other pending request for the pet in one statement. Flushes
+     * pending changes first so the approval and the rejections hit the database
+     * in the same order they were made.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AdoptionRequest r " +
+            "SET r.status = com.petmatch.model.AdoptionStatus.REJECTED, r.version = r.version + 1, " +
+            "r.updatedAt = LOCAL DATETIME " +
+            "WHERE r.pet.id = :petId AND r.id <> :approvedId " +
+            "AND r.status = com.petmatch.model.AdoptionStatus.PENDING")
+    int rejectOtherPendingRequests(@Param("petId") UUID petId, @Param("approvedId") UUID approvedId);
+
+    /**
+     * What the shelter counters and the duplicate check need to know about a request
+     * that is about to be deleted.
+     */
+    @Query("SELECT new com.petmatch.repository.AdoptionRequestRepository$CountedRequest(" +
+            "r.applicant.id, p.id, p.owner.id, r.status, r.updatedAt, p.createdAt) " +
+            "FROM AdoptionRequest r JOIN r.pet p WHERE r.id = :id")
+    Optional<CountedRequest> findCountedById(@Param("id") UUID id);
+
+    /**
+     * Deletes the request in one statement, without loading it first.
+     *
+     * @return the number of rows deleted, 0 if the request didn't exist
+     */
+    @Modifying
+    @Query("DELETE FROM AdoptionRequest r WHERE r.id = :id")
+    int removeById(@Param("id") UUID id);
+
+    record CountedRequest(UUID applicantId, UUID petId, UUID ownerId, AdoptionStatus status,
+                          LocalDateTime updatedAt, LocalDateTime petCreatedAt) {
+    }
 }
@@ -0,0 +1,28 @@
+package com.petmatch.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Aggregate that changes whenever any row behind a listing changes, used to build
+ * ETags without loading the listing itself.
+ */
+public record ListFingerprint(Long count, LocalDateTime requestsUpdatedAt, LocalDateTime petsUpdatedAt,
+                              Long versions) {
+
+    /**
+     * Strong ETag for this fingerprint. The scope (e.g. the caller's id) is mixed in
+     * so two users with identical aggregates never share a validator.
+     */
+    public String etag(String scope) {
+        return "\"" + Integer.toHexString(scope.hashCode())
+                + "-" + count
+                + "-" + millis(requestsUpdatedAt)
+                + "-" + millis(petsUpdatedAt)
+                + "-" + (versions != null ? versions : 0) + "\"";
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.petmatch.repository;
+
+import com.petmatch.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Events after the given position, in the order of the transactions that wrote
+     * them. Transactions still running, or younger than one that is, are left for a
+     * later read: nothing can commit behind a position taken from this query.
+     */
+    @Query(value = """
+            SELECT * FROM outbox_events
+            WHERE (tx_id, id) > (:txId, :id)
+              AND tx_id < CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)
+              AND type IN (:types)
+            ORDER BY tx_id, id
+            LIMIT :limit""", nativeQuery = true)
+    List<OutboxEvent> findCommittedAfter(@Param("txId") long txId,
+                                         @Param("id") long id,
+                                         @Param("types") Collection<String> types,
+                                         @Param("limit") int limit);
+
+    /**
+     * The oldest transaction that may still commit: every event it or a later
+     * transaction writes has a {@code txId} at least this.
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long findOldestRunningTransaction();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
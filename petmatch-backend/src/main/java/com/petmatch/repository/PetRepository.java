@@ -1,13 +1,56 @@
 package com.petmatch.repository;
 
+import com.petmatch.dto.PetResponseDTO;
 import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface PetRepository extends JpaRepository<Pet, UUID> {
+public interface PetRepository extends JpaRepository<Pet, UUID>, JpaSpecificationExecutor<Pet> {
 
     List<Pet> findByOwnerId(UUID ownerId);
 
+    @Query("SELECT p.version FROM Pet p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Streams the whole catalog as DTOs. Rows are pulled from the driver in
+     * chunks of the fetch size and never become managed entities, so memory
+     * stays flat regardless of table size. Must run inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.petmatch.dto.PetResponseDTO(" +
+            "p.id, p.name, p.type, p.breed, p.gender, p.age, p.description, p.latitude, p.longitude) FROM Pet p")
+    Stream<PetResponseDTO> streamAllForExport();
+
+    /**
+     * What the shelter counters need to know about a pet that is about to be deleted.
+     */
+    @Query("SELECT new com.petmatch.repository.PetRepository$CountedPet(p.owner.id, p.type, p.status) " +
+            "FROM Pet p WHERE p.id = :id")
+    Optional<CountedPet> findCountedById(@Param("id") UUID id);
+
+    /**
+     * Deletes the pet in one statement, without loading it first.
+     *
+     * @return the number of rows deleted, 0 if the pet didn't exist
+     */
+    @Modifying
+    @Query("DELETE FROM Pet p WHERE p.id = :id")
+    int removeById(@Param("id") UUID id);
+
+    record CountedPet(UUID ownerId, PetType type, PetStatus status) {
+    }
 }
@@ -0,0 +1,81 @@
+package com.petmatch.repository;
+
+import com.petmatch.dto.PetSearchCriteria;
+import com.petmatch.model.Pet;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class PetSpecifications {
+
+    /**
+     * Newest pets first. The id tiebreaker makes the order total, which keyset
+     * pagination needs; it is backed by the (created_at, id) indexes on {@link Pet}.
+     */
+    public static final Sort CATALOG_ORDER = Sort.by(
+            Sort.Order.desc("createdAt"),
+            Sort.Order.desc("id"));
+
+    private PetSpecifications() {
+    }
+
+    public static Specification<Pet> matching(PetSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (criteria.getType() != null) {
+                predicates.add(cb.equal(root.get("type"), criteria.getType()));
+            }
+            if (criteria.getStatus() != null) {
+                // A literal rather than a bind parameter, so even a cached generic plan
+                // can use the partial indexes over available pets.
+                predicates.add(cb.equal(root.get("status"), cb.literal(criteria.getStatus())));
+            }
+            if (criteria.getMinAge() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("age"), criteria.getMinAge()));
+            }
+            if (criteria.getMaxAge() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("age"), criteria.getMaxAge()));
+            }
+            if (criteria.getBreed() != null && !criteria.getBreed().isBlank()) {
+                predicates.add(cb.equal(cb.lower(root.get("breed")), criteria.getBreed().trim().toLowerCase()));
+            }
+            if (criteria.getGender() != null && !criteria.getGender().isBlank()) {
+                predicates.add(cb.equal(cb.lower(root.get("gender")), criteria.getGender().trim().toLowerCase()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Pets with a location; a pet either has both coordinates or neither.
+     */
+    public static Specification<Pet> located() {
+        return (root, query, cb) -> cb.isNotNull(root.get("latitude"));
+    }
+
+    /**
+     * Rows strictly after the cursor in {@link #CATALOG_ORDER}. A null cursor
+     * means the first page and adds no restriction.
+     */
+    public static Specification<Pet> after(PetCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            LocalDateTime createdAt = cursor.createdAt();
+            UUID id = cursor.id();
+            return cb.or(
+                    cb.lessThan(root.get("createdAt"), createdAt),
+                    cb.and(
+                            cb.equal(root.get("createdAt"), createdAt),
+                            cb.lessThan(root.get("id"), id)));
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.petmatch.repository;
+
+import com.petmatch.model.AdoptionStatus;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.model.ShelterStatCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ShelterStatCounterRepository extends JpaRepository<ShelterStatCounter, ShelterStatCounter.Key> {
+
+    List<ShelterStatCounter> findByOwnerId(UUID ownerId);
+
+    /**
+     * Adds {@code delta} to a counter, creating it on first use. A single statement,
+     * so concurrent writers for the same shelter queue on the row lock instead of
+     * racing to insert it.
+     */
+    @Modifying
+    @Query("INSERT INTO ShelterStatCounter (ownerId, name, amount) VALUES (:ownerId, :name, :delta) " +
+            "ON CONFLICT (ownerId, name) DO UPDATE SET amount = amount + excluded.amount")
+    int add(@Param("ownerId") UUID ownerId, @Param("name") String name, @Param("delta") long delta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ShelterStatCounter c WHERE c.ownerId = :ownerId")
+    List<ShelterStatCounter> lockByOwnerId(@Param("ownerId") UUID ownerId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ShelterStatCounter c WHERE c.ownerId = :ownerId")
+    int deleteByOwnerId(@Param("ownerId") UUID ownerId);
+
+    // Source aggregates, only read when rebuilding a shelter's counters from scratch.
+
+    @Query("SELECT new com.petmatch.repository.ShelterStatCounterRepository$PetCount(p.status, p.type, COUNT(p)) " +
+            "FROM Pet p WHERE p.owner.id = :ownerId GROUP BY p.status, p.type")
+    List<PetCount> countPets(@Param("ownerId") UUID ownerId);
+
+    @Query("SELECT new com.petmatch.repository.ShelterStatCounterRepository$RequestCount(r.status, COUNT(r)) " +
+            "FROM AdoptionRequest r WHERE r.pet.owner.id = :ownerId GROUP BY r.status")
+    List<RequestCount> countRequests(@Param("ownerId") UUID ownerId);
+
+    // Only adoptions with both a listing and an approval time count, as in
+    // ShelterStatsService and V6, so the average covers exactly the counted ones.
+    @Query("SELECT new com.petmatch.repository.ShelterStatCounterRepository$AdoptionTotals(" +
+            "COUNT(r), SUM((r.updatedAt - p.createdAt) BY SECOND)) " +
+            "FROM AdoptionRequest r JOIN r.pet p " +
+            "WHERE p.owner.id = :ownerId AND r.status = com.petmatch.model.AdoptionStatus.APPROVED " +
+            "AND r.updatedAt IS NOT NULL AND p.createdAt IS NOT NULL")
+    AdoptionTotals sumAdoptions(@Param("ownerId") UUID ownerId);
+
+    record PetCount(PetStatus status, PetType type, Long count) {
+    }
+
+    record RequestCount(AdoptionStatus status, Long count) {
+    }
+
+    record AdoptionTotals(Long adoptions, Number seconds) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.petmatch.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.petmatch.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers tokens that already passed signature verification together with the
+ * principal their claims describe. A repeat request costs one hash lookup instead
+ * of a JWT parse, and the caller is resolved without a user query. Verified tokens
+ * are kept until they expire.
+ */
+@Component
+public class AuthTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache<String, VerifiedToken> tokens;
+
+    public AuthTokenCache(JwtUtil jwtUtil,
+                          UserDetailsServiceImpl userDetailsService,
+                          @Value("${petmatch.security.token-cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+    }
+
+    /**
+     * Returns the principal for a valid token, or null if the token is invalid or
+     * expired.
+     */
+    public AuthenticatedUser authenticate(String token) {
+        VerifiedToken verified = tokens.getIfPresent(token);
+        if (verified == null) {
+            verified = verify(token);
+            if (verified == null) {
+                return null;
+            }
+            tokens.put(token, verified);
+        }
+
+        if (verified.expiresAtMillis() <= System.currentTimeMillis()) {
+            tokens.invalidate(token);
+            return null;
+        }
+
+        return verified.principal();
+    }
+
+    private VerifiedToken verify(String token) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+        if (principal == null) {
+            principal = loadUser(claims.getSubject());
+            if (principal == null) {
+                return null;
+            }
+        }
+        return new VerifiedToken(principal, claims.getExpiration().getTime());
+    }
+
+    /**
+     * Tokens issued before they carried the user's claims still name the user by
+     * email; their principal is looked up once and then cached with the token.
+     */
+    private AuthenticatedUser loadUser(String email) {
+        try {
+            return userDetailsService.loadUserByUsername(email);
+        } catch (UsernameNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private record VerifiedToken(AuthenticatedUser principal, long expiresAtMillis) {
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            long remainingMillis = verified.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
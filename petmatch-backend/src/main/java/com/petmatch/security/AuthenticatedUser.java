@@ -0,0 +1,63 @@
+package com.petmatch.security;
+
+import com.petmatch.model.Role;
+import com.petmatch.model.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Principal of an authenticated request, built from the claims of its token so
+ * that resolving the caller never queries the users table. It reflects the user
+ * as of login: a change of name or role shows up with the next token.
+ */
+public record AuthenticatedUser(UUID id, String email, String name, Role role) implements UserDetails {
+
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        Arrays.stream(Role.values()).forEach(role ->
+                AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority(role.name()))));
+    }
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getName(), user.getRole());
+    }
+
+    /**
+     * Reads the principal from verified claims, or returns null for a token issued
+     * without them.
+     */
+    static AuthenticatedUser fromClaims(Claims claims) {
+        String id = claims.get(JwtUtil.USER_ID_CLAIM, String.class);
+        String role = claims.get(JwtUtil.ROLE_CLAIM, String.class);
+        if (id == null || role == null) {
+            return null;
+        }
+        return new AuthenticatedUser(UUID.fromString(id), claims.getSubject(),
+                claims.get(JwtUtil.NAME_CLAIM, String.class), Role.valueOf(role));
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES.get(role);
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
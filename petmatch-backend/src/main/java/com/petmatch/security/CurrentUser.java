@@ -0,0 +1,35 @@
+package com.petmatch.security;
+
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+
+/**
+ * The authenticated user of the current request, as resolved by {@link JwtAuthFilter}
+ * from the claims of its token. Services take the caller's id from here instead of
+ * looking the user up; pass {@code UserRepository.getReferenceById(CurrentUser.id())}
+ * when an association is needed.
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    public static AuthenticatedUser get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new AuthenticationCredentialsNotFoundException("Unauthenticated user");
+        }
+        return user;
+    }
+
+    public static UUID id() {
+        return get().id();
+    }
+
+    public static String name() {
+        return get().name();
+    }
+}
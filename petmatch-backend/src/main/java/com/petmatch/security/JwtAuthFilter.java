@@ -1,25 +1,32 @@
 package com.petmatch.security;
 
-import com.petmatch.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final UserDetailsServiceImpl userDetailsService;
+    private static final String TIMER_NAME = "petmatch.security.jwt.filter";
+
+    private final AuthTokenCache authTokenCache;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtAuthFilter(AuthTokenCache authTokenCache, MeterRegistry meterRegistry) {
+        this.authTokenCache = authTokenCache;
+        this.authenticatedTimer = Timer.builder(TIMER_NAME).tag("outcome", "authenticated").register(meterRegistry);
+        this.rejectedTimer = Timer.builder(TIMER_NAME).tag("outcome", "rejected").register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -42,15 +49,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String email = jwtUtil.extractUsername(token);
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            Timer.Sample sample = Timer.start();
+            AuthenticatedUser principal = authTokenCache.authenticate(token);
+            sample.stop(principal != null ? authenticatedTimer : rejectedTimer);
 
-            if (jwtUtil.isTokenValid(token, userDetails)) {
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
+                                principal, null, principal.getAuthorities());
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
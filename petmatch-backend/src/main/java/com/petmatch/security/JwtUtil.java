@@ -1,6 +1,9 @@
 package com.petmatch.security;
 
+import com.petmatch.model.User;
 import io.github.cdimascio.dotenv.Dotenv;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,44 +16,61 @@ import java.util.Date;
 @Component
 public class JwtUtil {
 
-    private final String secret = Dotenv.configure().load().get("JWT_SECRET");
+    static final String USER_ID_CLAIM = "uid";
+    static final String NAME_CLAIM = "name";
+    static final String ROLE_CLAIM = "role";
+
     private final Key secretKey;
+    private final JwtParser jwtParser;
     private final long expirationMillis = 1000 * 60 * 60 * 24; // 24 horas
 
     public JwtUtil() {
+        this(Dotenv.configure().load().get("JWT_SECRET"));
+    }
+
+    public JwtUtil(String secret) {
         this.secretKey = new SecretKeySpec(secret.getBytes(), SignatureAlgorithm.HS256.getJcaName());
+        // The parser is immutable and thread-safe, so build it once instead of per call.
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
 
-    public String generateToken(String userEmail) {
+    /**
+     * Issues a token for the user. Besides the email as subject it carries the id,
+     * name and role, which is everything {@link AuthenticatedUser} needs.
+     */
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(userEmail)
+                .setSubject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId().toString())
+                .claim(NAME_CLAIM, user.getName())
+                .claim(ROLE_CLAIM, user.getRole().name())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMillis))
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiration of the token and returns all of its
+     * claims from a single parse. Throws a {@link io.jsonwebtoken.JwtException}
+     * if the token is malformed, tampered with or expired.
+     */
+    public Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        Claims claims = parseClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
-        return expiration.before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 }
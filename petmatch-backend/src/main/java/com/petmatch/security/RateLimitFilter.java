@@ -0,0 +1,127 @@
+package com.petmatch.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles expensive routes (login, signup, new adoption requests) per client so a
+ * single caller can't monopolize BCrypt or the database. Runs right after
+ * {@link JwtAuthFilter}, so rules keyed by user see the authenticated subject.
+ * Requests over the limit get {@code 429 Too Many Requests} with a Retry-After.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String REJECTED_BODY = "{\"error\":\"Too many requests, please retry later\"}";
+
+    private final List<RouteLimit> limits;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.limits = !properties.enabled() ? List.of() : properties.rules().stream()
+                .map(rule -> {
+                    TokenBuckets buckets = new TokenBuckets(rule.capacity(), rule.period(), properties.maxKeysPerRule());
+                    Gauge.builder("petmatch.ratelimit.clients", buckets, TokenBuckets::size)
+                            .description("Clients with a partly used rate limit bucket")
+                            .tag("rule", rule.name())
+                            .register(meterRegistry);
+                    return new RouteLimit(rule, prefixOf(rule.path()), buckets,
+                            Counter.builder("petmatch.ratelimit.rejected")
+                                    .description("Requests refused by a rate limit")
+                                    .tag("rule", rule.name())
+                                    .register(meterRegistry));
+                })
+                .toList();
+    }
+
+    /**
+     * Forgets clients whose buckets have refilled, which keeps memory proportional to
+     * the clients seen within roughly one period.
+     */
+    @Scheduled(fixedRateString = "${petmatch.rate-limit.eviction-interval:1m}")
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        limits.forEach(limit -> limit.buckets().evictFull(now));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limits.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (RouteLimit limit : limits) {
+            if (!limit.matches(method, path)) {
+                continue;
+            }
+            long waitNanos = limit.buckets().tryAcquire(clientKey(limit.rule().key(), request), System.nanoTime());
+            if (waitNanos > 0) {
+                limit.rejected().increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static String clientKey(RateLimitProperties.Key key, HttpServletRequest request) {
+        if (key == RateLimitProperties.Key.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return authentication.getName();
+            }
+        }
+        // Behind a proxy this is the client's address as long as
+        // server.forward-headers-strategy is set.
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        // Whole seconds, rounded up so a client that honours it is let through.
+        long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(REJECTED_BODY);
+    }
+
+    private static String prefixOf(String path) {
+        return path.endsWith("/**") ? path.substring(0, path.length() - 2) : null;
+    }
+
+    // prefix is null for rules on an exact path.
+    private record RouteLimit(RateLimitProperties.Rule rule, String prefix, TokenBuckets buckets, Counter rejected) {
+
+        boolean matches(String method, String path) {
+            if (rule.method() != null && !rule.method().equalsIgnoreCase(method)) {
+                return false;
+            }
+            return prefix != null ? path.startsWith(prefix) : path.equals(rule.path());
+        }
+    }
+}
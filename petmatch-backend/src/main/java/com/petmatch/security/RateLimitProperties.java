@@ -0,0 +1,46 @@
+package com.petmatch.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Request rate limits per route, bound from {@code petmatch.rate-limit.*}.
+ *
+ * @param enabled        turns all limits off when false
+ * @param maxKeysPerRule most clients tracked per rule; beyond it new clients share one
+ *                       overflow bucket until refilled buckets are evicted
+ * @param rules          the limits; a request must pass every rule that matches it
+ */
+@ConfigurationProperties("petmatch.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") long maxKeysPerRule,
+                                  @DefaultValue List<Rule> rules) {
+
+    /**
+     * Allows {@code capacity} requests per {@code period} for each client, as a burst
+     * or spread out.
+     *
+     * @param name     used in the {@code petmatch.ratelimit.rejected} metric
+     * @param method   HTTP method to match, or null for any
+     * @param path     exact request path, or a prefix ending in {@code /**}
+     * @param key      whether clients are told apart by IP address or by logged-in user
+     * @param capacity requests allowed per period
+     * @param period   time for an empty bucket to refill completely
+     */
+    public record Rule(String name,
+                       String method,
+                       String path,
+                       @DefaultValue("IP") Key key,
+                       int capacity,
+                       @DefaultValue("1m") Duration period) {
+    }
+
+    public enum Key {
+        IP,
+        // The JWT subject; requests without a valid token fall back to their IP.
+        USER
+    }
+}
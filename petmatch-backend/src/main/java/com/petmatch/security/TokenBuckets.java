@@ -0,0 +1,80 @@
+package com.petmatch.security;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for many clients under one limit, each a single {@link AtomicLong}.
+ * <p>
+ * A bucket is stored as the time at which it will be full again (the generic cell
+ * rate algorithm), so taking a token is one map lookup and one compare-and-set, with
+ * no lock and no background refill. A full bucket carries no state, so
+ * {@link #evictFull(long)} can drop it and a later request simply starts a new one.
+ * <p>
+ * Once {@code maxKeys} clients are tracked, clients without a bucket of their own
+ * share a single overflow bucket until eviction makes room. Flooding the map with
+ * new addresses therefore costs those clients capacity rather than lifting the limit.
+ */
+final class TokenBuckets {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBuckets(int capacity, Duration period, long maxKeys) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Rate limit capacity must be at least 1");
+        }
+        this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = intervalNanos * (capacity - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes a token from the client's bucket, or from the shared overflow bucket while
+     * {@code maxKeys} clients are being tracked.
+     *
+     * @return 0 if the request may proceed, otherwise nanoseconds until a token is available
+     */
+    long tryAcquire(String key, long nowNanos) {
+        AtomicLong fullAt = buckets.get(key);
+        if (fullAt == null) {
+            fullAt = buckets.size() >= maxKeys
+                    ? overflow
+                    : buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        return take(fullAt, nowNanos);
+    }
+
+    private long take(AtomicLong fullAt, long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long start = Math.max(current, nowNanos);
+            long wait = start - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely. A token taken from a bucket at the
+     * moment it is dropped is forgotten, so a client can gain at most one extra
+     * request per eviction.
+     */
+    int evictFull(long nowNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(fullAt -> fullAt.get() - nowNanos <= 0);
+        return before - buckets.size();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
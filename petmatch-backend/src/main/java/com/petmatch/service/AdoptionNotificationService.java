@@ -0,0 +1,251 @@
+package com.petmatch.service;
+
+import com.petmatch.dto.AdoptionResponseDTO;
+import com.petmatch.security.CurrentUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes adoption request status changes to the applicant over server-sent events.
+ * <p>
+ * Open streams live in a per-user registry. An idle stream is just a suspended async
+ * request and holds no thread. Each stream has a small bounded queue that is written
+ * out by a drain task on the dedicated notification executor, so a slow client only
+ * ever holds up its own stream. A stream whose queue overflows is closed; the
+ * browser's EventSource reconnects and re-reads {@code /api/adoptions/mine}, which is
+ * cheap thanks to its ETag. Periodic heartbeats keep proxies from cutting idle streams
+ * and surface dead connections. A heartbeat is only queued for a stream with nothing
+ * else waiting and is never a reason to close one.
+ */
+@Slf4j
+@Service
+public class AdoptionNotificationService {
+
+    static final String STATUS_EVENT = "adoption-status";
+
+    private final TaskExecutor taskExecutor;
+    private final Duration emitterTimeout;
+    private final int queueCapacity;
+    private final int maxStreamsPerUser;
+    private final Map<UUID, ConcurrentLinkedDeque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final Counter dropped;
+
+    public AdoptionNotificationService(@Qualifier("notificationExecutor") TaskExecutor taskExecutor,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${petmatch.notifications.emitter-timeout:30m}") Duration emitterTimeout,
+                                       @Value("${petmatch.notifications.queue-capacity:32}") int queueCapacity,
+                                       @Value("${petmatch.notifications.max-streams-per-user:5}") int maxStreamsPerUser) {
+        this.taskExecutor = taskExecutor;
+        this.emitterTimeout = emitterTimeout;
+        this.queueCapacity = queueCapacity;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+
+        Gauge.builder("petmatch.notifications.streams", openStreams, AtomicInteger::get)
+                .description("Open adoption status event streams")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("petmatch.notifications.dropped")
+                .description("Event streams closed because the client fell behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens an event stream for the current user. The oldest streams beyond the
+     * per-user limit are closed so abandoned tabs can't pile up.
+     */
+    public SseEmitter subscribe() {
+        UUID userId = CurrentUser.id();
+
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        try {
+            // Buffered until the request thread hands the emitter to the response, which
+            // then commits the headers straight away so clients see an open stream.
+            // Sending it from a drain task instead would race with that commit.
+            emitter.send(Notification.CONNECTED.toEvent());
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not open event stream", ex);
+        }
+
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscriber.emitter.onCompletion(subscriber::unregister);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+
+        // Added under the map's lock for this user, so an unregister that empties the
+        // deque can't drop it from the map with the new stream in it. The streams over
+        // the limit are closed afterwards, as closing unregisters through the same map.
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, streams) -> {
+            if (streams == null) {
+                streams = new ConcurrentLinkedDeque<>();
+            }
+            streams.addLast(subscriber);
+            while (streams.size() > maxStreamsPerUser) {
+                evicted.add(streams.pollFirst());
+            }
+            return streams;
+        });
+        openStreams.incrementAndGet();
+        evicted.forEach(Subscriber::close);
+        return emitter;
+    }
+
+    /**
+     * Sends the new state of a request to every open stream of its applicant.
+     */
+    public void statusChanged(AdoptionResponseDTO request) {
+        ConcurrentLinkedDeque<Subscriber> streams = subscribers.get(request.applicantId());
+        if (streams != null) {
+            Notification notification = Notification.status(request);
+            streams.forEach(subscriber -> subscriber.offer(notification));
+        }
+    }
+
+    /**
+     * Closes every open stream, for a node that may have missed status changes. The
+     * clients reconnect and re-read their requests.
+     */
+    public void closeAll() {
+        subscribers.values().forEach(streams -> streams.forEach(Subscriber::close));
+    }
+
+    @Scheduled(fixedRateString = "${petmatch.notifications.heartbeat-interval:25s}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(streams -> streams.forEach(Subscriber::heartbeat));
+    }
+
+    int openStreams() {
+        return openStreams.get();
+    }
+
+    private record Notification(String name, String id, Object data, String comment) {
+
+        static final Notification CONNECTED = new Notification(null, null, null, "connected");
+        static final Notification HEARTBEAT = new Notification(null, null, null, "heartbeat");
+
+        static Notification status(AdoptionResponseDTO request) {
+            return new Notification(STATUS_EVENT, request.id().toString(), request, null);
+        }
+
+        // Event builders accumulate their lines, so a fresh one is needed for every send.
+        SseEmitter.SseEventBuilder toEvent() {
+            if (comment != null) {
+                return SseEmitter.event().comment(comment);
+            }
+            return SseEmitter.event().name(name).id(id).data(data);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Notification> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Notification notification) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(notification)) {
+                dropped.increment();
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        /**
+         * Queues a heartbeat if the stream is idle, and restarts a drain that could not
+         * be scheduled earlier.
+         */
+        void heartbeat() {
+            if (closed.get()) {
+                return;
+            }
+            if (queue.isEmpty()) {
+                queue.offer(Notification.HEARTBEAT);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                taskExecutor.execute(this::drain);
+            } catch (TaskRejectedException ex) {
+                // Only happens while shutting down; the queue is kept and the next
+                // event or heartbeat tries again.
+                draining.set(false);
+                log.debug("Could not schedule event stream drain for user {}: {}", userId, ex.getMessage());
+            }
+        }
+
+        private void drain() {
+            try {
+                Notification notification;
+                while (!closed.get() && (notification = queue.poll()) != null) {
+                    emitter.send(notification.toEvent());
+                }
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Closing event stream for user {}: {}", userId, ex.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Something may have been queued between the last poll and clearing the flag.
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            if (unregister()) {
+                emitter.complete();
+            }
+        }
+
+        boolean unregister() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            queue.clear();
+            openStreams.decrementAndGet();
+            subscribers.computeIfPresent(userId, (id, streams) -> {
+                streams.remove(this);
+                return streams.isEmpty() ? null : streams;
+            });
+            return true;
+        }
+    }
+}
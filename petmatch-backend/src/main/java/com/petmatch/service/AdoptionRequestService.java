@@ -2,143 +2,193 @@ package com.petmatch.service;
 
 import com.petmatch.dto.AdoptionRequestDTO;
 import com.petmatch.dto.AdoptionResponseDTO;
+import com.petmatch.exception.AdoptionConflictException;
+import com.petmatch.exception.DuplicateAdoptionRequestException;
 import com.petmatch.model.*;
 import com.petmatch.repository.AdoptionRequestRepository;
 import com.petmatch.repository.PetRepository;
 import com.petmatch.repository.UserRepository;
+import com.petmatch.security.CurrentUser;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Timed("petmatch.service")
 public class AdoptionRequestService {
 
     private final AdoptionRequestRepository adoptionRequestRepository;
     private final PetRepository petRepository;
     private final UserRepository userRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final OutboxService outboxService;
+    private final ShelterStatsService shelterStatsService;
+    private final RecentAdoptionRequests recentAdoptionRequests;
 
 
+    @Transactional
     public AdoptionResponseDTO createAdoptionRequest(AdoptionRequestDTO adoptionRequestDTO) {
-        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        UUID applicantId = CurrentUser.id();
 
-        Pet pet = petRepository.findById(adoptionRequestDTO.getPetId())
-                .orElseThrow(() -> new EntityNotFoundException("Pet not found"));
-
-
-        if (adoptionRequestRepository.existsByApplicantAndPet(user, pet)) {
-            throw new RuntimeException("You have already requested to adopt this pet.");
+        // A remembered pair may since have been deleted through another node, so it is
+        // confirmed with an index lookup; that still saves loading the pet and a failed insert.
+        if (recentAdoptionRequests.contains(applicantId, adoptionRequestDTO.getPetId())
+                && adoptionRequestRepository.existsByApplicantIdAndPetId(applicantId, adoptionRequestDTO.getPetId())) {
+            throw new DuplicateAdoptionRequestException();
         }
 
+        // The pet is read in full: its owner keys the shelter counters and its name goes
+        // into the notification. The applicant is only needed for its foreign key.
+        Pet pet = petRepository.findById(adoptionRequestDTO.getPetId())
+                .orElseThrow(() -> new EntityNotFoundException("Pet not found"));
 
         AdoptionRequest request = AdoptionRequest.builder()
-                .applicant(user)
+                .applicant(userRepository.getReferenceById(applicantId))
                 .pet(pet)
                 .message(adoptionRequestDTO.getMessage())
                 .status(AdoptionStatus.PENDING)
                 .build();
 
-        return mapToResponseDTO(adoptionRequestRepository.save(request));
+        // The unique constraint on (applicant, pet) is the duplicate check. Flushing
+        // makes a repeat fail here, as a conflict, instead of at commit.
+        try {
+            adoptionRequestRepository.saveAndFlush(request);
+        } catch (DataIntegrityViolationException ex) {
+            if (!violates(ex, AdoptionRequest.APPLICANT_PET_CONSTRAINT)) {
+                throw ex;
+            }
+            recentAdoptionRequests.addExisting(applicantId, pet.getId());
+            throw new DuplicateAdoptionRequestException();
+        }
+        recentAdoptionRequests.add(applicantId, pet.getId());
+
+        AdoptionResponseDTO response = AdoptionResponseDTO.from(request, CurrentUser.name());
+        shelterStatsService.requestAdded(request);
+        outboxService.publish(OutboxEventType.ADOPTION_REQUESTED, response.id(), response);
+        return response;
     }
 
     public List<AdoptionResponseDTO> getUserAdoptionRequests() {
-        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
-        return adoptionRequestRepository.findByApplicant(user)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+        return adoptionRequestRepository.findResponsesByApplicantId(CurrentUser.id());
     }
 
+    @Transactional
     public AdoptionResponseDTO updateStatus(UUID requestId, AdoptionStatus status) {
         AdoptionRequest request = adoptionRequestRepository.findById(requestId)
                 .orElseThrow(() -> new EntityNotFoundException("Request not found"));
 
+        AdoptionStatus previousStatus = request.getStatus();
         request.setStatus(status);
-        return mapToResponseDTO(adoptionRequestRepository.save(request));
+        shelterStatsService.requestStatusChanged(request, previousStatus);
+        AdoptionResponseDTO response = AdoptionResponseDTO.from(adoptionRequestRepository.save(request));
+        outboxService.publish(OutboxEventType.ADOPTION_STATUS_CHANGED, response.id(), response);
+        return response;
     }
 
+    /**
+     * Deletes the request with a single statement, after reading only the columns the
+     * shelter counters need. A request that is gone by the time of the delete is
+     * reported as not found.
+     */
+    @Transactional
     public void deleteRequest(UUID requestId) {
-        if (!adoptionRequestRepository.existsById(requestId)) {
+        AdoptionRequestRepository.CountedRequest request = adoptionRequestRepository.findCountedById(requestId)
+                .orElseThrow(() -> new EntityNotFoundException("Request not found"));
+        if (adoptionRequestRepository.removeById(requestId) == 0) {
             throw new EntityNotFoundException("Request not found");
         }
-        adoptionRequestRepository.deleteById(requestId);
+        shelterStatsService.requestRemoved(request);
+        recentAdoptionRequests.remove(request.applicantId(), request.petId());
     }
 
-    public List<AdoptionResponseDTO> getAdoptionRequestsForMyPets() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+    public String getUserAdoptionRequestsETag() {
+        UUID applicantId = CurrentUser.id();
+        return adoptionRequestRepository.fingerprintByApplicantId(applicantId).etag("mine:" + applicantId);
+    }
 
-        List<AdoptionRequest> requests = adoptionRequestRepository.findByPetOwner(owner);
+    public String getAdoptionRequestsForMyPetsETag() {
+        UUID ownerId = CurrentUser.id();
+        return adoptionRequestRepository.fingerprintByPetOwnerId(ownerId).etag("received:" + ownerId);
+    }
 
-        return requests.stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    public List<AdoptionResponseDTO> getAdoptionRequestsForMyPets() {
+        return adoptionRequestRepository.findResponsesByPetOwnerId(CurrentUser.id());
     }
 
+    /**
+     * Approves the request, marks the pet as adopted and rejects every other
+     * pending request for it, all in one transaction. Concurrent approvals for
+     * the same pet are caught by the version check on {@link Pet} and the loser
+     * fails with an optimistic locking error instead of adopting the pet twice.
+     */
+    @Transactional
     public AdoptionResponseDTO approveRequest(UUID requestId) {
         AdoptionRequest request = adoptionRequestRepository.findById(requestId)
                 .orElseThrow(() -> new EntityNotFoundException("Request not found"));
 
         if (request.getStatus() != AdoptionStatus.PENDING) {
-            throw new IllegalStateException("Only pending requests can be approved");
+            throw new AdoptionConflictException("Only pending requests can be approved");
         }
 
-        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-
-        User owner = request.getPet().getOwner();
+        Pet pet = request.getPet();
+        User owner = pet.getOwner();
 
-        if (owner == null || !owner.getEmail().equals(userEmail)) {
+        // Compared by id, which the owner proxy already holds, so the owner is not loaded.
+        if (owner == null || !owner.getId().equals(CurrentUser.id())) {
             throw new AccessDeniedException("You are not the owner of this pet");
         }
 
+        if (pet.getStatus() == PetStatus.ADOPTED) {
+            throw new AdoptionConflictException("This pet has already been adopted");
+        }
+
         request.setStatus(AdoptionStatus.APPROVED);
+        shelterStatsService.requestStatusChanged(request, AdoptionStatus.PENDING);
         adoptionRequestRepository.save(request);
 
-        Pet pet = request.getPet();
+        PetStatus previousPetStatus = pet.getStatus();
         pet.setStatus(PetStatus.ADOPTED);
         petRepository.save(pet);
-
-        List<AdoptionRequest> otherRequests = adoptionRequestRepository.findByPetAndIdNot(pet, request.getId());
-        for (AdoptionRequest other : otherRequests) {
-            if (other.getStatus() == AdoptionStatus.PENDING) {
-                other.setStatus(AdoptionStatus.REJECTED);
-            }
+        resourceVersionService.bump(ResourceVersion.PETS);
+        shelterStatsService.petChanged(pet, pet.getType(), previousPetStatus);
+
+        // The bulk update bypasses the persistence context, so read who is about to be
+        // rejected first to tell them about it.
+        List<AdoptionResponseDTO> rejected = adoptionRequestRepository.findResponsesByPetId(pet.getId()).stream()
+                .filter(other -> other.status() == AdoptionStatus.PENDING && !other.id().equals(request.getId()))
+                .map(other -> other.withStatus(AdoptionStatus.REJECTED))
+                .toList();
+        int rejectedCount = adoptionRequestRepository.rejectOtherPendingRequests(pet.getId(), request.getId());
+        shelterStatsService.requestsRejected(pet, rejectedCount);
+
+        AdoptionResponseDTO response = AdoptionResponseDTO.from(request);
+        outboxService.publish(OutboxEventType.PET_CHANGED, pet.getId(), null);
+        outboxService.publish(OutboxEventType.ADOPTION_STATUS_CHANGED, response.id(), response);
+        for (AdoptionResponseDTO other : rejected) {
+            outboxService.publish(OutboxEventType.ADOPTION_STATUS_CHANGED, other.id(), other);
         }
-        adoptionRequestRepository.saveAll(otherRequests);
-
-        return mapToResponseDTO(request);
+        return response;
     }
 
 
-
-    private AdoptionResponseDTO mapToResponseDTO(AdoptionRequest request) {
-        return AdoptionResponseDTO.builder()
-                .id(request.getId())
-                .petName(request.getPet().getName())
-                .petId(request.getPet().getId())
-                .applicantName(request.getApplicant().getName())
-                .message(request.getMessage())
-                .status(request.getStatus())
-                .applicantId(request.getApplicant().getId())
-                .createdAt(request.getCreatedAt())
-                .build();
+    public List<AdoptionResponseDTO> getRequestsByPetId(UUID petId) {
+        return adoptionRequestRepository.findResponsesByPetId(petId);
     }
 
-    public List<AdoptionResponseDTO> getRequestsByPetId(UUID petId) {
-        List<AdoptionRequest> requests = adoptionRequestRepository.findByPetId(petId);
-        return requests.stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    private static boolean violates(DataIntegrityViolationException ex, String constraint) {
+        return ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint);
     }
 
 }
@@ -0,0 +1,67 @@
+package com.petmatch.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmatch.dto.AdoptionResponseDTO;
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+import com.petmatch.model.Pet;
+import com.petmatch.repository.PetRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Feeds new adoption requests into the applicant's recommendation profile.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdoptionRequestedHandler implements OutboxEventHandler {
+
+    private final PetRepository petRepository;
+    private final PetRecommendationService petRecommendationService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public OutboxEventType type() {
+        return OutboxEventType.ADOPTION_REQUESTED;
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        List<AdoptionResponseDTO> requests = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            requests.add(read(event));
+        }
+        Map<UUID, Pet> pets = petRepository.findAllById(requests.stream().map(AdoptionResponseDTO::petId).toList())
+                .stream()
+                .collect(Collectors.toMap(Pet::getId, Function.identity()));
+
+        for (AdoptionResponseDTO request : requests) {
+            Pet pet = pets.get(request.petId());
+            if (pet != null) {
+                petRecommendationService.onAdoptionRequested(request.applicantId(), pet);
+            }
+        }
+    }
+
+    @Override
+    public void resync() {
+        petRecommendationService.forgetProfiles();
+    }
+
+    private AdoptionResponseDTO read(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), AdoptionResponseDTO.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
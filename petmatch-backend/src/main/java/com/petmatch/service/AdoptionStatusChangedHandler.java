@@ -0,0 +1,46 @@
+package com.petmatch.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmatch.dto.AdoptionResponseDTO;
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Pushes status changes to the applicant's open event streams.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdoptionStatusChangedHandler implements OutboxEventHandler {
+
+    private final AdoptionNotificationService notificationService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public OutboxEventType type() {
+        return OutboxEventType.ADOPTION_STATUS_CHANGED;
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            AdoptionResponseDTO request;
+            try {
+                request = objectMapper.readValue(event.getPayload(), AdoptionResponseDTO.class);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            AfterCommit.run(() -> notificationService.statusChanged(request));
+        }
+    }
+
+    @Override
+    public void resync() {
+        notificationService.closeAll();
+    }
+}
@@ -3,25 +3,24 @@ package com.petmatch.service;
 import com.petmatch.dto.LoginRequestDTO;
 import com.petmatch.model.User;
 import com.petmatch.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
+@Timed("petmatch.service")
 public class AuthService {
 
     private final UserRepository userRepository;
-    @Autowired
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
     public User authenticate(LoginRequestDTO loginRequestDTO){
 
         User user = userRepository.findByEmail(loginRequestDTO.getEmail())
                 .orElseThrow(() -> new RuntimeException("Email not found"));
 
-        if (!passwordEncoder.matches(loginRequestDTO.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(loginRequestDTO.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid password");
         }
 
@@ -0,0 +1,277 @@
+package com.petmatch.service;
+
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+import com.petmatch.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Polls the outbox and hands events to their {@link OutboxEventHandler} on every node.
+ * <p>
+ * Each node reads the events from its own position in the outbox, which only lives
+ * in memory: a starting node loads its state from the database and follows the
+ * events of transactions that were still open at that point. Events are pruned once
+ * older than {@code retention}. A failing batch holds the node's position and is
+ * retried with exponential backoff; after {@code max-attempts} the node logs the
+ * event, moves past it and has the handler of its type resync from the database.
+ * A node that has not caught up with the outbox for longer than the retention may
+ * have lost events to pruning, so it starts over from the current position and has
+ * every handler resync.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher implements SmartInitializingSingleton {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<OutboxEventType, OutboxEventHandler> handlers = new EnumMap<>(OutboxEventType.class);
+    private final List<String> typeNames = new ArrayList<>();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration retention;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter parked;
+    private final Counter resynced;
+
+    // Only touched by the scheduler thread, apart from the start position.
+    private volatile Position position;
+    private int positionAttempts;
+    private LocalDateTime positionRetryAt;
+    private LocalDateTime caughtUpAt;
+    private final Set<OutboxEventType> resyncPending = EnumSet.noneOf(OutboxEventType.class);
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            TransactionTemplate transactionTemplate,
+                            List<OutboxEventHandler> handlers,
+                            MeterRegistry meterRegistry,
+                            @Value("${petmatch.outbox.batch-size:100}") int batchSize,
+                            @Value("${petmatch.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${petmatch.outbox.retry-backoff:1s}") Duration retryBackoff,
+                            @Value("${petmatch.outbox.max-retry-backoff:5m}") Duration maxRetryBackoff,
+                            @Value("${petmatch.outbox.retention:1h}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        for (OutboxEventHandler handler : handlers) {
+            if (this.handlers.put(handler.type(), handler) != null) {
+                throw new IllegalStateException("More than one outbox handler for " + handler.type());
+            }
+            typeNames.add(handler.type().name());
+        }
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.retention = retention;
+
+        this.delivered = Counter.builder("petmatch.outbox.delivered")
+                .description("Outbox events handled successfully")
+                .register(meterRegistry);
+        this.retried = Counter.builder("petmatch.outbox.retried")
+                .description("Outbox event deliveries that failed and were rescheduled")
+                .register(meterRegistry);
+        this.parked = Counter.builder("petmatch.outbox.parked")
+                .description("Outbox events given up on after the maximum number of attempts")
+                .register(meterRegistry);
+        this.resynced = Counter.builder("petmatch.outbox.resynced")
+                .description("Outbox handlers resynced from the database after this node may have missed events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes this node's starting position before the in-memory indexes load (they
+     * load once the application is ready), so whatever they miss is still ahead of it.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (handlers.isEmpty()) {
+            return;
+        }
+        try {
+            startPosition();
+        } catch (RuntimeException ex) {
+            log.warn("Could not read the outbox start position, will retry when polling: {}", ex.toString());
+        }
+    }
+
+    /**
+     * Resyncs whatever may have missed events, then drains everything that is due,
+     * one batch per transaction.
+     */
+    @Scheduled(fixedDelayString = "${petmatch.outbox.poll-interval:250ms}")
+    public void dispatchPending() {
+        if (handlers.isEmpty()) {
+            return;
+        }
+        resync(LocalDateTime.now());
+        int read;
+        do {
+            Integer count = transactionTemplate.execute(status -> followBatch());
+            read = count != null ? count : 0;
+        } while (read == batchSize);
+    }
+
+    /**
+     * Removes events every node has long since read. Any node may run it.
+     */
+    @Scheduled(fixedDelayString = "${petmatch.outbox.prune-interval:1m}")
+    public void prune() {
+        Integer pruned = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+        if (pruned != null && pruned > 0) {
+            log.debug("Pruned {} outbox event(s) older than {}", pruned, retention);
+        }
+    }
+
+    /**
+     * Starts over from the current position if this node has not caught up with the
+     * outbox within the retention, then resyncs the handlers that may have missed
+     * events. A failed resync is tried again on the next poll. Runs outside a
+     * transaction, as a resync reads whole tables.
+     */
+    void resync(LocalDateTime now) {
+        if (caughtUpAt != null && caughtUpAt.isBefore(now.minus(retention))) {
+            log.warn("This node last caught up with the outbox at {}, longer ago than the {} retention; "
+                    + "starting over from the current position", caughtUpAt, retention);
+            startPosition();
+            resyncPending.addAll(handlers.keySet());
+        }
+
+        var pending = resyncPending.iterator();
+        while (pending.hasNext()) {
+            OutboxEventType type = pending.next();
+            try {
+                handlers.get(type).resync();
+                pending.remove();
+                resynced.increment();
+                log.info("Resynced the {} outbox handler", type);
+            } catch (RuntimeException ex) {
+                log.warn("Resyncing the {} outbox handler failed, will retry when polling: {}", type, ex.toString());
+            }
+        }
+    }
+
+    /**
+     * Reads and handles the next batch of events after this node's position. Returns
+     * the batch size, or 0 when it has to wait for a retry.
+     */
+    int followBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        if (positionRetryAt != null && now.isBefore(positionRetryAt)) {
+            return 0;
+        }
+        if (position == null) {
+            // The indexes loaded before this position was taken and may have missed
+            // changes committed in between.
+            startPosition();
+            resyncPending.addAll(handlers.keySet());
+        }
+        List<OutboxEvent> batch = outboxEventRepository.findCommittedAfter(
+                position.txId(), position.id(), typeNames, batchSize);
+        if (batch.isEmpty()) {
+            caughtUpAt = now;
+            return 0;
+        }
+
+        Map<OutboxEvent, RuntimeException> failed = new IdentityHashMap<>();
+        handle(batch, failed);
+
+        if (failed.isEmpty()) {
+            delivered.increment(batch.size());
+            advanceTo(batch.get(batch.size() - 1));
+            if (batch.size() < batchSize) {
+                caughtUpAt = now;
+            }
+            return batch.size();
+        }
+
+        // Everything before the first failure is done; the rest is read again.
+        int firstFailed = 0;
+        while (!failed.containsKey(batch.get(firstFailed))) {
+            firstFailed++;
+        }
+        if (firstFailed > 0) {
+            delivered.increment(firstFailed);
+            advanceTo(batch.get(firstFailed - 1));
+        }
+
+        OutboxEvent event = batch.get(firstFailed);
+        positionAttempts++;
+        if (positionAttempts >= maxAttempts) {
+            parked.increment();
+            log.error("Skipping outbox event {} ({} for {}) on this node after {} attempts: {}",
+                    event.getId(), event.getType(), event.getAggregateId(), positionAttempts, failed.get(event).toString());
+            advanceTo(event);
+            resyncPending.add(event.getType());
+        } else {
+            positionRetryAt = now.plus(backoff(positionAttempts));
+            retried.increment();
+        }
+        return 0;
+    }
+
+    /**
+     * Hands the batch to the handlers type by type and records the events of every
+     * type that failed.
+     */
+    private void handle(List<OutboxEvent> batch, Map<OutboxEvent, RuntimeException> failed) {
+        Map<OutboxEventType, List<OutboxEvent>> byType = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byType.computeIfAbsent(event.getType(), type -> new ArrayList<>()).add(event);
+        }
+
+        byType.forEach((type, events) -> {
+            try {
+                OutboxEventHandler handler = handlers.get(type);
+                if (handler == null) {
+                    throw new IllegalStateException("No outbox handler for " + type);
+                }
+                handler.handle(events);
+            } catch (RuntimeException ex) {
+                log.warn("Delivering {} {} outbox event(s) failed: {}", events.size(), type, ex.toString());
+                events.forEach(event -> failed.put(event, ex));
+            }
+        });
+    }
+
+    private void startPosition() {
+        position = new Position(outboxEventRepository.findOldestRunningTransaction(), 0);
+        positionAttempts = 0;
+        positionRetryAt = null;
+        caughtUpAt = LocalDateTime.now();
+    }
+
+    private void advanceTo(OutboxEvent event) {
+        position = new Position(event.getTxId(), event.getId());
+        positionAttempts = 0;
+        positionRetryAt = null;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+    }
+
+    private record Position(long txId, long id) {
+    }
+}
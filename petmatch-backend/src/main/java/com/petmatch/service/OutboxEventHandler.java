@@ -0,0 +1,29 @@
+package com.petmatch.service;
+
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+
+import java.util.List;
+
+/**
+ * Consumes one type of outbox event. Every node handles every event, so handlers
+ * keep state that lives in each node's memory, such as indexes and open event
+ * streams. Delivery is at least once, so handlers must be idempotent; they receive
+ * the due events of their type in a batch, in outbox order, and a thrown exception
+ * has the whole batch read again after a backoff.
+ * <p>
+ * A node that gives up on an event, or falls so far behind that events were pruned
+ * before it read them, calls {@link #resync()} instead.
+ */
+public interface OutboxEventHandler {
+
+    OutboxEventType type();
+
+    void handle(List<OutboxEvent> events);
+
+    /**
+     * Brings this node's state back in line with the database after events of this
+     * type may have been missed. Runs outside any transaction.
+     */
+    void resync();
+}
@@ -0,0 +1,49 @@
+package com.petmatch.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+import com.petmatch.repository.OutboxEventRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Records domain events in the outbox. Side effects of a write (index updates,
+ * notifications) are not run on the request path; they are delivered by
+ * {@link OutboxDispatcher} once the write has committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Timed("petmatch.service")
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Adds an event to the outbox. Joins the caller's transaction so the event
+     * exists if and only if the change it describes commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEventType type, UUID aggregateId, Object payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .type(type)
+                .aggregateId(aggregateId)
+                .payload(payload != null ? toJson(payload) : null)
+                .build());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Event payload is not serializable", ex);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.petmatch.service;
+
+import com.petmatch.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt encode/verify on a dedicated, fixed-size pool so that a login or
+ * signup burst can use at most {@code threads} cores, leaving the rest for the
+ * catalog endpoints. The queue is bounded: once it is full, callers are rejected
+ * immediately with {@link ServiceOverloadedException} rather than piling up
+ * behind each other on request threads.
+ * <p>
+ * A hash that is still queued after {@code queue-timeout} is taken off the queue and
+ * shed the same way. Once a hash has started it runs to completion and the caller
+ * gets its result: BCrypt never checks for interrupts, so cancelling it would only
+ * free the caller while the pool thread kept burning the same CPU.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration queueTimeout;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${petmatch.security.password-hashing.threads:0}") int threads,
+                          @Value("${petmatch.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${petmatch.security.password-hashing.queue-timeout:5s}") Duration queueTimeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.queueTimeout = queueTimeout;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(meterRegistry);
+        this.rejected = Counter.builder("petmatch.password.hashing.rejected")
+                .description("Hashing requests shed because the pool queue was full or they waited in it too long")
+                .register(meterRegistry);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Authentication service is busy, please retry");
+        }
+
+        try {
+            try {
+                return future.get(queueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                // Only a hash that hasn't started yet can be given up on.
+                if (executor.remove((Runnable) future)) {
+                    rejected.increment();
+                    throw new ServiceOverloadedException("Authentication service is busy, please retry");
+                }
+                return future.get();
+            }
+        } catch (InterruptedException ex) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
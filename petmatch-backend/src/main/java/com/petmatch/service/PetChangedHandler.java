@@ -0,0 +1,114 @@
+package com.petmatch.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmatch.config.CacheConfig;
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+import com.petmatch.model.Pet;
+import com.petmatch.repository.PetRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Brings the in-memory search, location and recommendation indexes and the pet cache up to
+ * date with pets that were created, edited or deleted. Events only name the pet (or, for bulk imports,
+ * carry a JSON array of pet ids); current rows are loaded here, so repeated or
+ * out-of-order deliveries converge on the latest state.
+ */
+@Component
+@RequiredArgsConstructor
+public class PetChangedHandler implements OutboxEventHandler {
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final TypeReference<List<UUID>> UUID_LIST = new TypeReference<>() {
+    };
+
+    private final PetRepository petRepository;
+    private final PetRecommendationService petRecommendationService;
+    private final PetSearchIndex petSearchIndex;
+    private final PetGeoIndex petGeoIndex;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+
+    @Override
+    public OutboxEventType type() {
+        return OutboxEventType.PET_CHANGED;
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        Set<UUID> petIds = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            if (event.getPayload() != null) {
+                petIds.addAll(read(event));
+            } else {
+                petIds.add(event.getAggregateId());
+            }
+        }
+
+        List<UUID> ordered = new ArrayList<>(petIds);
+        for (int from = 0; from < ordered.size(); from += LOAD_CHUNK_SIZE) {
+            apply(ordered.subList(from, Math.min(from + LOAD_CHUNK_SIZE, ordered.size())));
+        }
+    }
+
+    @Override
+    public void resync() {
+        Cache cached = cacheManager.getCache(CacheConfig.PETS);
+        if (cached != null) {
+            cached.clear();
+        }
+        petRecommendationService.reloadCatalog();
+        petSearchIndex.reload();
+        petGeoIndex.reload();
+    }
+
+    private void apply(List<UUID> petIds) {
+        Map<UUID, Pet> pets = petRepository.findAllById(petIds).stream()
+                .collect(Collectors.toMap(Pet::getId, Function.identity()));
+        Cache cached = cacheManager.getCache(CacheConfig.PETS);
+
+        for (UUID petId : petIds) {
+            if (cached != null) {
+                cached.evict(petId);
+            }
+            Pet pet = pets.get(petId);
+            if (pet != null) {
+                petRecommendationService.onPetSaved(pet);
+                petSearchIndex.onPetSaved(pet);
+                petGeoIndex.onPetSaved(pet);
+            } else {
+                petRecommendationService.onPetDeleted(petId);
+                petSearchIndex.onPetDeleted(petId);
+                petGeoIndex.onPetDeleted(petId);
+            }
+        }
+        // Bulk imports can name tens of thousands of pets in one dispatch; the indexes
+        // have taken what they need, so keep the persistence context to one chunk.
+        pets.values().forEach(entityManager::detach);
+    }
+
+    private List<UUID> read(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), UUID_LIST);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.petmatch.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.petmatch.dto.PetResponseDTO;
+import com.petmatch.repository.PetRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Timed("petmatch.service")
+public class PetExportService {
+
+    private final PetRepository petRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes every pet to the stream as newline-delimited JSON, one object per
+     * line, and returns the number of pets written. The caller owns the stream
+     * and is responsible for closing it.
+     */
+    @Transactional(readOnly = true)
+    public long exportPets(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(PetResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+
+        try (Stream<PetResponseDTO> pets = petRepository.streamAllForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<PetResponseDTO> iterator = pets.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,402 @@
+package com.petmatch.service;
+
+import com.petmatch.dto.PetSearchCriteria;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.repository.PetCursor;
+import com.petmatch.repository.PetRepository;
+import com.petmatch.repository.PetSpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded spatial index over pet locations, answering "the nearest pets to a point".
+ * <p>
+ * Every located pet is filed under a 40-bit cell code that interleaves 20 bits of
+ * latitude with 20 bits of longitude, a geohash kept as a number (cells of roughly
+ * 20 by 40 metres at the equator). Dropping the low bits of a code gives the enclosing
+ * cell at any coarser level, and codes sort cell by cell, so the pets of a cell at any
+ * level are one contiguous range of a sorted map: the map is a quadtree.
+ * <p>
+ * A query walks that quadtree best-first. Cells are taken nearest first by a lower
+ * bound on their distance from the point, empty cells are never entered, and pets
+ * are only compared once a cell is down to a few hundred metres across. The walk
+ * stops when the next cell is further away than the radius or than the furthest of
+ * the pets collected so far. Cost grows with the pets and occupied cells near the
+ * point, not with the size of the catalog.
+ * <p>
+ * Like {@link PetSearchIndex}, it is filled once at startup and then kept current
+ * from pet writes after they commit. Pets without a location are left out.
+ */
+@Slf4j
+@Component
+public class PetGeoIndex {
+
+    static final int MAX_RESULTS = 50;
+    static final double MAX_RADIUS_KM = 500;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final int BITS = 20;
+    private static final int LEAF_LEVEL = 16;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final PetRepository petRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, IntList> cells = new TreeMap<>();
+
+    // Pets live in dense slots so a scan reads plain arrays; a removed pet's slot is reused.
+    private final Map<UUID, Integer> slotsById = new HashMap<>();
+    private final IntList freeSlots = new IntList();
+    private UUID[] ids = new UUID[1024];
+    private long[] codes = new long[1024];
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    private byte[] types = new byte[1024];
+    private byte[] statuses = new byte[1024];
+    private int slotCount;
+
+    public PetGeoIndex(PetRepository petRepository) {
+        this.petRepository = petRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        int loaded = load(new HashSet<>());
+        log.info("Indexed {} pet locations", loaded);
+    }
+
+    /**
+     * Indexes every located pet again and drops the ones that are gone or lost their
+     * location, for a node that may have missed pet changes.
+     */
+    public void reload() {
+        Set<UUID> seen = new HashSet<>();
+        int loaded = load(seen);
+
+        lock.writeLock().lock();
+        try {
+            int dropped = 0;
+            var entries = slotsById.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<UUID, Integer> entry = entries.next();
+                if (!seen.contains(entry.getKey())) {
+                    entries.remove();
+                    free(entry.getValue());
+                    dropped++;
+                }
+            }
+            log.info("Re-indexed {} pet locations, dropped {}", loaded, dropped);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int load(Set<UUID> seen) {
+        PetCursor after = null;
+        List<Pet> batch;
+        int loaded = 0;
+        do {
+            batch = petRepository.findBy(
+                    PetSpecifications.matching(new PetSearchCriteria())
+                            .and(PetSpecifications.located())
+                            .and(PetSpecifications.after(after)),
+                    query -> query.sortBy(PetSpecifications.CATALOG_ORDER).limit(LOAD_BATCH_SIZE).all());
+            for (Pet pet : batch) {
+                index(pet);
+                seen.add(pet.getId());
+            }
+            loaded += batch.size();
+            if (!batch.isEmpty()) {
+                after = PetCursor.of(batch.get(batch.size() - 1));
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        return loaded;
+    }
+
+    /**
+     * Call after a pet is created or changed; re-indexes it once the transaction commits.
+     */
+    public void onPetSaved(Pet pet) {
+        Doc doc = toDoc(pet);
+        AfterCommit.run(() -> put(doc));
+    }
+
+    public void onPetDeleted(UUID petId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Integer slot = slotsById.remove(petId);
+                if (slot != null) {
+                    free(slot);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    void index(Pet pet) {
+        put(toDoc(pet));
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} pets within {@code radiusKm} of the point that match the
+     * optional type and status, nearest first.
+     */
+    public List<Hit> nearest(double latitude, double longitude, double radiusKm,
+                             PetType type, PetStatus status, int limit) {
+        // Written so that NaN fails too: it would pass every bound and walk the whole index.
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+        if (!Double.isFinite(radiusKm)) {
+            throw new IllegalArgumentException("Radius must be a finite number of kilometres");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_RESULTS));
+        double radius = Math.max(0, Math.min(radiusKm, MAX_RADIUS_KM));
+        byte typeFilter = code(type);
+        byte statusFilter = code(status);
+        PriorityQueue<Hit> top = new PriorityQueue<>(size + 1, Hit.FARTHEST_FIRST);
+        PriorityQueue<Cell> frontier = new PriorityQueue<>(Cell.NEAREST_FIRST);
+        frontier.add(new Cell(0, 0, 0, 0));
+
+        lock.readLock().lock();
+        try {
+            Cell cell;
+            while ((cell = frontier.poll()) != null) {
+                // Every pet left is in a cell at least this far away.
+                if (cell.minDistanceKm() > radius
+                        || (top.size() == size && cell.minDistanceKm() > top.peek().distanceKm())) {
+                    break;
+                }
+                if (cell.level() == LEAF_LEVEL) {
+                    scan(cell, latitude, longitude, radius, typeFilter, statusFilter, size, top);
+                    continue;
+                }
+                for (int quadrant = 0; quadrant < 4; quadrant++) {
+                    int row = cell.row() * 2 + (quadrant >> 1);
+                    int column = cell.column() * 2 + (quadrant & 1);
+                    if (!isEmpty(cell.level() + 1, row, column)) {
+                        frontier.add(new Cell(cell.level() + 1, row, column,
+                                minDistanceKm(cell.level() + 1, row, column, latitude, longitude)));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> nearest = new ArrayList<>(top);
+        nearest.sort(Hit.FARTHEST_FIRST.reversed());
+        return nearest;
+    }
+
+    private void scan(Cell cell, double latitude, double longitude, double radius,
+                      byte typeFilter, byte statusFilter, int size, PriorityQueue<Hit> top) {
+        for (IntList pets : range(cell.level(), cell.row(), cell.column()).values()) {
+            for (int i = 0; i < pets.size; i++) {
+                int slot = pets.values[i];
+                if ((typeFilter != 0 && types[slot] != typeFilter)
+                        || (statusFilter != 0 && statuses[slot] != statusFilter)) {
+                    continue;
+                }
+                double distance = distanceKm(latitude, longitude, latitudes[slot], longitudes[slot]);
+                if (distance > radius) {
+                    continue;
+                }
+                if (top.size() < size || distance < top.peek().distanceKm()) {
+                    top.add(new Hit(ids[slot], distance));
+                    if (top.size() > size) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isEmpty(int level, int row, int column) {
+        int shift = 2 * (BITS - level);
+        long prefix = interleave(row, column);
+        Long first = cells.ceilingKey(prefix << shift);
+        return first == null || first >= (prefix + 1) << shift;
+    }
+
+    private NavigableMap<Long, IntList> range(int level, int row, int column) {
+        int shift = 2 * (BITS - level);
+        long prefix = interleave(row, column);
+        return cells.subMap(prefix << shift, true, (prefix + 1) << shift, false);
+    }
+
+    /**
+     * A lower bound on the distance from the point to any location in the cell: the
+     * haversine formula with the latitude and longitude gaps to the cell's nearest
+     * edges, and the cell latitude furthest from the equator, where a degree of
+     * longitude is shortest.
+     */
+    static double minDistanceKm(int level, int row, int column, double latitude, double longitude) {
+        double cellHeight = 180.0 / (1 << level);
+        double cellWidth = 360.0 / (1 << level);
+        double south = -90 + row * cellHeight;
+        double north = south + cellHeight;
+        double west = -180 + column * cellWidth;
+
+        double latitudeGap = latitude < south ? south - latitude : latitude > north ? latitude - north : 0;
+        double offset = ((longitude - west) % 360 + 360) % 360;
+        double longitudeGap = offset <= cellWidth ? 0 : Math.min(offset - cellWidth, 360 - offset);
+
+        double sinLat = Math.sin(Math.toRadians(latitudeGap) / 2);
+        double sinLon = Math.sin(Math.toRadians(longitudeGap) / 2);
+        double widestLatitude = Math.max(Math.abs(south), Math.abs(north));
+        double haversine = sinLat * sinLat
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(widestLatitude)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, haversine)));
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double haversine = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, haversine)));
+    }
+
+    private void put(Doc doc) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = slotsById.remove(doc.id());
+            if (previous != null) {
+                free(previous);
+            }
+            if (doc.latitude() == null || doc.longitude() == null) {
+                return;
+            }
+
+            int slot = freeSlots.size > 0 ? freeSlots.values[--freeSlots.size] : slotCount++;
+            ensureCapacity(slotCount);
+            ids[slot] = doc.id();
+            latitudes[slot] = doc.latitude();
+            longitudes[slot] = doc.longitude();
+            codes[slot] = interleave(cell(doc.latitude(), -90, 180), cell(doc.longitude(), -180, 360));
+            types[slot] = code(doc.type());
+            statuses[slot] = code(doc.status());
+            cells.computeIfAbsent(codes[slot], code -> new IntList()).add(slot);
+            slotsById.put(doc.id(), slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void free(int slot) {
+        IntList cell = cells.get(codes[slot]);
+        cell.remove(slot);
+        if (cell.size == 0) {
+            cells.remove(codes[slot]);
+        }
+        ids[slot] = null;
+        freeSlots.add(slot);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        codes = Arrays.copyOf(codes, grown);
+        latitudes = Arrays.copyOf(latitudes, grown);
+        longitudes = Arrays.copyOf(longitudes, grown);
+        types = Arrays.copyOf(types, grown);
+        statuses = Arrays.copyOf(statuses, grown);
+    }
+
+    private static int cell(double degrees, double min, double span) {
+        int cell = (int) ((degrees - min) / span * (1 << BITS));
+        return Math.max(0, Math.min((1 << BITS) - 1, cell));
+    }
+
+    /**
+     * Latitude bits in the odd positions, longitude bits in the even ones.
+     */
+    static long interleave(int latitudeCell, int longitudeCell) {
+        return spread(latitudeCell) << 1 | spread(longitudeCell);
+    }
+
+    private static long spread(int value) {
+        long bits = value & 0xFFFFFFFFL;
+        bits = (bits | bits << 16) & 0x0000FFFF0000FFFFL;
+        bits = (bits | bits << 8) & 0x00FF00FF00FF00FFL;
+        bits = (bits | bits << 4) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | bits << 2) & 0x3333333333333333L;
+        bits = (bits | bits << 1) & 0x5555555555555555L;
+        return bits;
+    }
+
+    private static byte code(Enum<?> value) {
+        return (byte) (value == null ? 0 : value.ordinal() + 1);
+    }
+
+    private static Doc toDoc(Pet pet) {
+        return new Doc(pet.getId(), pet.getType(), pet.getStatus(), pet.getLatitude(), pet.getLongitude());
+    }
+
+    public record Hit(UUID id, double distanceKm) {
+        static final Comparator<Hit> FARTHEST_FIRST = Comparator.comparingDouble(Hit::distanceKm)
+                .thenComparing(Hit::id)
+                .reversed();
+    }
+
+    private record Cell(int level, int row, int column, double minDistanceKm) {
+        static final Comparator<Cell> NEAREST_FIRST = Comparator.comparingDouble(Cell::minDistanceKm);
+    }
+
+    private record Doc(UUID id, PetType type, PetStatus status, Double latitude, Double longitude) {
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
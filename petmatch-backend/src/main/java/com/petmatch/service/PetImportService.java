@@ -0,0 +1,267 @@
+package com.petmatch.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.petmatch.dto.PetImportErrorDTO;
+import com.petmatch.dto.PetImportReportDTO;
+import com.petmatch.dto.PetRequestDTO;
+import com.petmatch.model.OutboxEventType;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.ResourceVersion;
+import com.petmatch.model.User;
+import com.petmatch.security.CurrentUser;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk creation of pets for the current user from a JSON array or a CSV file.
+ * <p>
+ * The upload is parsed as a stream, one record at a time, and every record is
+ * validated like a {@code POST /api/pets} body. Valid pets are inserted in batches
+ * of {@code petmatch.import.batch-size}, each in its own transaction with JDBC
+ * batching at the same size, so memory stays bounded by one batch however large
+ * the file is. Invalid records are skipped and listed in the returned report.
+ */
+@Slf4j
+@Service
+@Timed("petmatch.service")
+public class PetImportService {
+
+    private final ResourceVersionService resourceVersionService;
+    private final OutboxService outboxService;
+    private final ShelterStatsService shelterStatsService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public PetImportService(ResourceVersionService resourceVersionService,
+                            OutboxService outboxService,
+                            ShelterStatsService shelterStatsService,
+                            ObjectMapper objectMapper,
+                            Validator validator,
+                            TransactionTemplate transactionTemplate,
+                            EntityManager entityManager,
+                            @Value("${petmatch.import.batch-size:500}") int batchSize,
+                            @Value("${petmatch.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.resourceVersionService = resourceVersionService;
+        this.outboxService = outboxService;
+        this.shelterStatsService = shelterStatsService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports a JSON array of pet objects. A syntax error ends the import at that
+     * point; everything before it stays imported and the error is reported.
+     */
+    public PetImportReportDTO importJson(InputStream in) throws IOException {
+        ImportRun run = new ImportRun(CurrentUser.id());
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of pets");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    run.abort("Unexpected end of input");
+                    break;
+                }
+                // One record at a time as a tree, so a bad field fails only its own row.
+                JsonNode record = parser.readValueAsTree();
+                run.accept(() -> objectMapper.treeToValue(record, PetRequestDTO.class));
+            }
+        } catch (JsonProcessingException ex) {
+            run.abort("Malformed JSON: " + ex.getOriginalMessage());
+        }
+        return run.finish();
+    }
+
+    /**
+     * Imports CSV with a header row naming the {@code PetRequestDTO} fields
+     * (name, type, breed, age, gender, description,
+     * latitude, longitude) in any order.
+     */
+    public PetImportReportDTO importCsv(InputStream in) throws IOException {
+        ImportRun run = new ImportRun(CurrentUser.id());
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+
+        try (MappingIterator<Map<String, String>> rows = csvMapper.readerForMapOf(String.class).with(schema).readValues(in)) {
+            while (rows.hasNextValue()) {
+                Map<String, String> row = rows.nextValue();
+                run.accept(() -> objectMapper.convertValue(blanksAsNull(row), PetRequestDTO.class));
+            }
+        } catch (RuntimeJsonMappingException | JsonProcessingException ex) {
+            run.abort("Malformed CSV: " + ex.getMessage());
+        }
+        return run.finish();
+    }
+
+    private static Map<String, String> blanksAsNull(Map<String, String> row) {
+        Map<String, String> values = new HashMap<>(row.size());
+        row.forEach((column, value) -> values.put(column.trim(), value == null || value.isBlank() ? null : value));
+        return values;
+    }
+
+    private static String describe(Exception ex) {
+        Throwable cause = ex instanceof IllegalArgumentException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()) {
+            String field = mapping.getPath().get(mapping.getPath().size() - 1).getFieldName();
+            return field + ": invalid value";
+        }
+        return cause instanceof JsonProcessingException json ? json.getOriginalMessage() : cause.getMessage();
+    }
+
+    @FunctionalInterface
+    private interface RecordReader {
+        PetRequestDTO read() throws IOException;
+    }
+
+    /**
+     * State of one upload: the pending batch and the running report.
+     */
+    private final class ImportRun {
+
+        private final UUID ownerId;
+        private final List<Pet> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchRows = new ArrayList<>(batchSize);
+        private final List<PetImportErrorDTO> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long rejected;
+
+        ImportRun(UUID ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        void accept(RecordReader reader) {
+            long row = ++received;
+            PetRequestDTO dto;
+            try {
+                dto = reader.read();
+            } catch (IOException | IllegalArgumentException ex) {
+                reject(row, List.of(describe(ex)));
+                return;
+            }
+            if (dto == null) {
+                reject(row, List.of("Expected a pet object"));
+                return;
+            }
+
+            Set<ConstraintViolation<PetRequestDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                reject(row, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.toList()));
+                return;
+            }
+
+            batch.add(toPet(dto));
+            batchRows.add(row);
+            if (batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void abort(String message) {
+            reject(received + 1, List.of(message));
+        }
+
+        PetImportReportDTO finish() {
+            flush();
+            return PetImportReportDTO.builder()
+                    .received(received)
+                    .imported(imported)
+                    .rejected(rejected)
+                    .errors(errors)
+                    .errorsTruncated(rejected > errors.size())
+                    .build();
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                    User owner = entityManager.getReference(User.class, ownerId);
+                    List<UUID> ids = new ArrayList<>(batch.size());
+                    for (Pet pet : batch) {
+                        pet.setOwner(owner);
+                        entityManager.persist(pet);
+                        ids.add(pet.getId());
+                    }
+                    resourceVersionService.bump(ResourceVersion.PETS);
+                    shelterStatsService.petsAdded(ownerId, batch);
+                    outboxService.publish(OutboxEventType.PET_CHANGED, ids.get(0), ids);
+                });
+                imported += batch.size();
+            } catch (RuntimeException ex) {
+                log.warn("Importing a batch of {} pets failed", batch.size(), ex);
+                for (Long row : batchRows) {
+                    reject(row, List.of("Could not be saved: " + ex.getMessage()));
+                }
+            } finally {
+                batch.clear();
+                batchRows.clear();
+            }
+        }
+
+        private void reject(long row, List<String> messages) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new PetImportErrorDTO(row, messages));
+            }
+        }
+
+        private Pet toPet(PetRequestDTO dto) {
+            return Pet.builder()
+                    .name(dto.getName())
+                    .age(dto.getAge())
+                    .type(dto.getType())
+                    .gender(dto.getGender())
+                    .breed(dto.getBreed())
+                    .status(PetStatus.AVAILABLE)
+                    .description(dto.getDescription())
+                    .latitude(dto.getLatitude())
+                    .longitude(dto.getLongitude())
+                    .build();
+        }
+    }
+}
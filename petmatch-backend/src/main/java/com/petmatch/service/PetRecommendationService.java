@@ -0,0 +1,378 @@
+package com.petmatch.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petmatch.dto.PetSearchCriteria;
+import com.petmatch.model.AdoptionRequest;
+import com.petmatch.model.AdoptionStatus;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.repository.AdoptionRequestRepository;
+import com.petmatch.repository.PetCursor;
+import com.petmatch.repository.PetRepository;
+import com.petmatch.repository.PetSpecifications;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Content-based recommendations over the AVAILABLE catalog, held entirely in memory.
+ * <p>
+ * Each available pet is reduced to a small feature vector (type, age bucket, size,
+ * gender, interned breed id). An adopter's profile is the weighted histogram of those
+ * features over the pets they asked to adopt, and every loaded profile keeps a bounded
+ * min-heap of its best-scoring pets. Pet changes are pushed into the catalog and into
+ * each heap after commit, so serving a recommendation never scans the pets table; a
+ * heap is only rebuilt (from memory), on the next read, when removals leave it shorter
+ * than a full page or a new request has changed the adopter's profile.
+ */
+@Slf4j
+@Service
+@Timed("petmatch.service")
+public class PetRecommendationService {
+
+    static final int MAX_RECOMMENDATIONS = 20;
+    private static final int HEAP_CAPACITY = MAX_RECOMMENDATIONS * 2;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final double TYPE_WEIGHT = 3.0;
+    private static final double BREED_WEIGHT = 2.0;
+    private static final double AGE_WEIGHT = 1.5;
+    private static final double SIZE_WEIGHT = 1.0;
+    private static final double GENDER_WEIGHT = 0.5;
+
+    // Bucket 0 means "unknown" in every dimension and never contributes to a score.
+    private static final int AGE_BUCKETS = 5;
+    private static final int SIZE_BUCKETS = 4;
+    private static final int GENDER_BUCKETS = 3;
+
+    // Lowest score at the head of the heap; on ties the older pet is the one to drop.
+    private static final Comparator<Scored> WORST_FIRST = Comparator
+            .comparingDouble(Scored::score)
+            .thenComparingLong(scored -> scored.pet().createdAt())
+            .thenComparing(scored -> scored.pet().id());
+
+    private final PetRepository petRepository;
+    private final AdoptionRequestRepository adoptionRequestRepository;
+    private final Map<UUID, PetFeatures> catalog = new ConcurrentHashMap<>();
+    private final Map<String, Integer> breedIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextBreedId = new AtomicInteger();
+    private final Cache<UUID, AdopterProfile> profiles;
+
+    public PetRecommendationService(PetRepository petRepository,
+                                    AdoptionRequestRepository adoptionRequestRepository,
+                                    @Value("${petmatch.recommendations.max-profiles:10000}") long maxProfiles,
+                                    @Value("${petmatch.recommendations.profile-ttl:30m}") Duration profileTtl) {
+        this.petRepository = petRepository;
+        this.adoptionRequestRepository = adoptionRequestRepository;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxProfiles)
+                .expireAfterAccess(profileTtl)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCatalog() {
+        // Pet changes may already have been applied by now; those are newer than a loaded row.
+        load((id, features) -> catalog.putIfAbsent(id, features));
+        log.info("Loaded {} available pets into the recommendation index", catalog.size());
+    }
+
+    /**
+     * Reloads the catalog and forgets every profile, for a node that may have missed
+     * pet changes. Profiles are rebuilt from the database on their next read.
+     */
+    public void reloadCatalog() {
+        Set<UUID> seen = new HashSet<>();
+        load((id, features) -> {
+            catalog.put(id, features);
+            seen.add(id);
+        });
+        catalog.keySet().retainAll(seen);
+        profiles.invalidateAll();
+        log.info("Reloaded {} available pets into the recommendation index", catalog.size());
+    }
+
+    /**
+     * Forgets every profile, for a node that may have missed adoption requests.
+     */
+    public void forgetProfiles() {
+        profiles.invalidateAll();
+    }
+
+    private void load(BiConsumer<UUID, PetFeatures> loaded) {
+        PetSearchCriteria available = new PetSearchCriteria();
+        available.setStatus(PetStatus.AVAILABLE);
+
+        PetCursor after = null;
+        List<Pet> batch;
+        do {
+            batch = petRepository.findBy(
+                    PetSpecifications.matching(available).and(PetSpecifications.after(after)),
+                    query -> query.sortBy(PetSpecifications.CATALOG_ORDER).limit(LOAD_BATCH_SIZE).all());
+            for (Pet pet : batch) {
+                loaded.accept(pet.getId(), features(pet));
+            }
+            if (!batch.isEmpty()) {
+                after = PetCursor.of(batch.get(batch.size() - 1));
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+    }
+
+    /**
+     * Ids of the best matching available pets for the adopter, best first. Adopters
+     * without any request history get the newest pets.
+     */
+    public List<UUID> recommend(UUID adopterId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_RECOMMENDATIONS));
+        AdopterProfile profile = profileFor(adopterId);
+
+        synchronized (profile) {
+            if (profile.stale) {
+                rebuild(profile);
+            }
+            List<Scored> ranked = new ArrayList<>(profile.top);
+            ranked.sort(WORST_FIRST.reversed());
+            return ranked.stream()
+                    .limit(size)
+                    .map(scored -> scored.pet().id())
+                    .toList();
+        }
+    }
+
+    /**
+     * Call after a pet is created or changed. Available pets are (re)scored into every
+     * loaded profile, anything else is dropped from the index.
+     */
+    public void onPetSaved(Pet pet) {
+        UUID petId = pet.getId();
+        PetFeatures features = pet.getStatus() == PetStatus.AVAILABLE ? features(pet) : null;
+        AfterCommit.run(() -> {
+            if (features != null) {
+                catalog.put(petId, features);
+            } else {
+                catalog.remove(petId);
+            }
+            profiles.asMap().values().forEach(profile -> replace(profile, petId, features));
+        });
+    }
+
+    public void onPetDeleted(UUID petId) {
+        AfterCommit.run(() -> {
+            catalog.remove(petId);
+            profiles.asMap().values().forEach(profile -> replace(profile, petId, null));
+        });
+    }
+
+    /**
+     * Call after an adopter asks for a pet. Adds the pet to their profile (if it is
+     * loaded). Every score depends on the histogram, so the heap is re-ranked, but only
+     * when the adopter next asks for recommendations: a burst of requests costs one
+     * pass over the catalog, not one per request.
+     */
+    public void onAdoptionRequested(UUID adopterId, Pet pet) {
+        UUID petId = pet.getId();
+        PetFeatures features = features(pet);
+        AfterCommit.run(() -> {
+            AdopterProfile profile = profiles.getIfPresent(adopterId);
+            if (profile == null) {
+                return;
+            }
+            synchronized (profile) {
+                profile.learn(features, weight(AdoptionStatus.PENDING));
+                profile.requested.add(petId);
+                profile.stale = true;
+            }
+        });
+    }
+
+    private AdopterProfile profileFor(UUID adopterId) {
+        AdopterProfile profile = profiles.getIfPresent(adopterId);
+        if (profile != null) {
+            return profile;
+        }
+
+        // Load outside the cache's compute so a slow query doesn't block other adopters.
+        AdopterProfile loaded = new AdopterProfile();
+        for (AdoptionRequest request : adoptionRequestRepository.findWithPetByApplicantId(adopterId)) {
+            loaded.learn(features(request.getPet()), weight(request.getStatus()));
+            loaded.requested.add(request.getPet().getId());
+        }
+        rebuild(loaded);
+
+        AdopterProfile existing = profiles.asMap().putIfAbsent(adopterId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void rebuild(AdopterProfile profile) {
+        profile.top.clear();
+        profile.truncated = false;
+        for (PetFeatures pet : catalog.values()) {
+            offer(profile, pet);
+        }
+        profile.stale = false;
+    }
+
+    private void replace(AdopterProfile profile, UUID petId, PetFeatures features) {
+        synchronized (profile) {
+            profile.top.removeIf(scored -> scored.pet().id().equals(petId));
+            if (features != null) {
+                offer(profile, features);
+            }
+            // Pets that fell off a full heap are not tracked, so refill from the catalog
+            // on the next read rather than serve a short page.
+            if (profile.truncated && profile.top.size() < MAX_RECOMMENDATIONS) {
+                profile.stale = true;
+            }
+        }
+    }
+
+    private void offer(AdopterProfile profile, PetFeatures pet) {
+        if (profile.requested.contains(pet.id())) {
+            return;
+        }
+
+        Scored candidate = new Scored(pet, profile.score(pet));
+        if (profile.top.size() < HEAP_CAPACITY) {
+            profile.top.add(candidate);
+            return;
+        }
+
+        profile.truncated = true;
+        if (WORST_FIRST.compare(candidate, profile.top.peek()) > 0) {
+            profile.top.poll();
+            profile.top.add(candidate);
+        }
+    }
+
+    private static double weight(AdoptionStatus status) {
+        return switch (status) {
+            case APPROVED -> 2.0;
+            case PENDING -> 1.0;
+            case REJECTED -> 0.5;
+        };
+    }
+
+    private PetFeatures features(Pet pet) {
+        return new PetFeatures(
+                pet.getId(),
+                (byte) (pet.getType() != null ? pet.getType().ordinal() : PetType.OTHER.ordinal()),
+                ageBucket(pet.getAge()),
+                sizeBucket(pet.getSize()),
+                genderBucket(pet.getGender()),
+                breedId(pet.getBreed()),
+                pet.getCreatedAt() != null ? pet.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : 0L);
+    }
+
+    private static byte ageBucket(Integer age) {
+        if (age == null) {
+            return 0;
+        }
+        if (age <= 1) {
+            return 1;
+        }
+        if (age <= 3) {
+            return 2;
+        }
+        return (byte) (age <= 7 ? 3 : 4);
+    }
+
+    private static byte sizeBucket(String size) {
+        if (size == null) {
+            return 0;
+        }
+        return switch (size.trim().toLowerCase(Locale.ROOT)) {
+            case "small" -> 1;
+            case "medium" -> 2;
+            case "large" -> 3;
+            default -> 0;
+        };
+    }
+
+    private static byte genderBucket(String gender) {
+        if (gender == null) {
+            return 0;
+        }
+        return switch (gender.trim().toLowerCase(Locale.ROOT)) {
+            case "male", "m" -> 1;
+            case "female", "f" -> 2;
+            default -> 0;
+        };
+    }
+
+    private int breedId(String breed) {
+        if (breed == null || breed.isBlank()) {
+            return 0;
+        }
+        return breedIds.computeIfAbsent(breed.trim().toLowerCase(Locale.ROOT), key -> nextBreedId.incrementAndGet());
+    }
+
+    private record PetFeatures(UUID id, byte type, byte ageBucket, byte size, byte gender, int breed, long createdAt) {
+    }
+
+    private record Scored(PetFeatures pet, double score) {
+    }
+
+    private static final class AdopterProfile {
+
+        private final double[] types = new double[PetType.values().length];
+        private final double[] ages = new double[AGE_BUCKETS];
+        private final double[] sizes = new double[SIZE_BUCKETS];
+        private final double[] genders = new double[GENDER_BUCKETS];
+        private final Map<Integer, Double> breeds = new HashMap<>();
+        private final Set<UUID> requested = new HashSet<>();
+        private final PriorityQueue<Scored> top = new PriorityQueue<>(HEAP_CAPACITY, WORST_FIRST);
+        private double observations;
+        private boolean truncated;
+        private boolean stale;
+
+        void learn(PetFeatures pet, double weight) {
+            observations += weight;
+            types[pet.type()] += weight;
+            ages[pet.ageBucket()] += weight;
+            sizes[pet.size()] += weight;
+            genders[pet.gender()] += weight;
+            if (pet.breed() != 0) {
+                breeds.merge(pet.breed(), weight, Double::sum);
+            }
+        }
+
+        double score(PetFeatures pet) {
+            if (observations == 0) {
+                return 0;
+            }
+            double score = TYPE_WEIGHT * types[pet.type()]
+                    + BREED_WEIGHT * breeds.getOrDefault(pet.breed(), 0.0);
+            if (pet.ageBucket() != 0) {
+                score += AGE_WEIGHT * ages[pet.ageBucket()];
+            }
+            if (pet.size() != 0) {
+                score += SIZE_WEIGHT * sizes[pet.size()];
+            }
+            if (pet.gender() != 0) {
+                score += GENDER_WEIGHT * genders[pet.gender()];
+            }
+            return score / observations;
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package com.petmatch.service;
+
+import com.petmatch.dto.PetSearchCriteria;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.repository.PetCursor;
+import com.petmatch.repository.PetRepository;
+import com.petmatch.repository.PetSpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded inverted index over pet name, breed and description.
+ * <p>
+ * Terms are accent-folded and lowercased. Each posting stores a field-boosted term
+ * frequency (name x3, breed x2, description x1) and results are ranked with BM25
+ * over those boosted frequencies, scaled by the share of query words a pet matched.
+ * A query word that is not an indexed term is expanded to indexed terms it prefixes
+ * ("lab" finds "labrador") and, failing that, to terms within one or two edits
+ * ("frendly"), found through a trigram index so only close candidates are compared.
+ * <p>
+ * The index holds every pet, whatever its status, so it can report facet counts per
+ * type and status. It is filled once at startup and then kept current from pet writes
+ * after they commit. Postings are int/float arrays over dense pet slots and a query
+ * scores into pooled flat arrays that are cleared slot by slot afterwards, so cost
+ * grows with the postings it touches, not with the number of pets. Only the first
+ * {@value #MAX_QUERY_WORDS} distinct query words are used.
+ */
+@Slf4j
+@Component
+public class PetSearchIndex {
+
+    static final int MAX_RESULTS = 50;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final float NAME_BOOST = 3f;
+    private static final float BREED_BOOST = 2f;
+    private static final float DESCRIPTION_BOOST = 1f;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final double PREFIX_WEIGHT = 0.7;
+    private static final double FUZZY_WEIGHT = 0.5;
+    private static final int MAX_EXPANSIONS = 32;
+    // Also keeps the per-pet matched word count within a byte.
+    static final int MAX_QUERY_WORDS = 16;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "the", "with", "of", "for", "to", "in", "is", "very", "my");
+
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    private final PetRepository petRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+
+    // Pets live in dense slots so postings and per-query scores can be plain arrays.
+    // A re-indexed or deleted pet leaves a dead slot (null id) that searches skip;
+    // dead slots are squeezed out once they make up a quarter of the index.
+    private final Map<UUID, Integer> slotsById = new HashMap<>();
+    private UUID[] ids = new UUID[1024];
+    private byte[] types = new byte[1024];
+    private byte[] statuses = new byte[1024];
+    private float[] lengths = new float[1024];
+    private int slotCount;
+    private int deadCount;
+    private double totalLength;
+
+    // Per-query score arrays are reused rather than allocated at catalog size for every
+    // query; the pool keeps about one buffer per core and drops the rest.
+    private final BlockingQueue<Scratch> scratchPool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    public PetSearchIndex(PetRepository petRepository) {
+        this.petRepository = petRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        int loaded = load(new HashSet<>());
+        log.info("Indexed {} pets for search", loaded);
+    }
+
+    /**
+     * Indexes every pet again and drops the ones that are gone, for a node that may
+     * have missed pet changes. Searches keep being answered while it runs.
+     */
+    public void reload() {
+        Set<UUID> seen = new HashSet<>();
+        int loaded = load(seen);
+
+        lock.writeLock().lock();
+        try {
+            int dropped = 0;
+            var entries = slotsById.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<UUID, Integer> entry = entries.next();
+                if (!seen.contains(entry.getKey())) {
+                    entries.remove();
+                    kill(entry.getValue());
+                    dropped++;
+                }
+            }
+            compactIfSparse();
+            log.info("Re-indexed {} pets for search, dropped {}", loaded, dropped);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int load(Set<UUID> seen) {
+        PetCursor after = null;
+        List<Pet> batch;
+        int loaded = 0;
+        do {
+            batch = petRepository.findBy(
+                    PetSpecifications.matching(new PetSearchCriteria()).and(PetSpecifications.after(after)),
+                    query -> query.sortBy(PetSpecifications.CATALOG_ORDER).limit(LOAD_BATCH_SIZE).all());
+            for (Pet pet : batch) {
+                index(pet);
+                seen.add(pet.getId());
+            }
+            loaded += batch.size();
+            if (!batch.isEmpty()) {
+                after = PetCursor.of(batch.get(batch.size() - 1));
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        return loaded;
+    }
+
+    /**
+     * Call after a pet is created or changed; re-indexes it once the transaction commits.
+     */
+    public void onPetSaved(Pet pet) {
+        Doc doc = toDoc(pet);
+        AfterCommit.run(() -> put(doc));
+    }
+
+    public void onPetDeleted(UUID petId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Integer slot = slotsById.remove(petId);
+                if (slot != null) {
+                    kill(slot);
+                    compactIfSparse();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    void index(Pet pet) {
+        put(toDoc(pet));
+    }
+
+    public SearchResult search(String query, PetType type, PetStatus status, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_RESULTS));
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return new SearchResult(List.of(), 0, new EnumMap<>(PetType.class), new EnumMap<>(PetStatus.class));
+        }
+        if (words.size() > MAX_QUERY_WORDS) {
+            words = words.subList(0, MAX_QUERY_WORDS);
+        }
+
+        lock.readLock().lock();
+        Scratch scratch = acquireScratch();
+        try {
+            double averageLength = slotCount == deadCount ? 1 : totalLength / (slotCount - deadCount);
+            float[] scores = scratch.scores;
+            float[] wordScores = scratch.wordScores;
+            byte[] matchedWords = scratch.matchedWords;
+            IntList matched = scratch.matched;
+            IntList matchedByWord = scratch.matchedByWord;
+
+            for (String word : words) {
+                Map<String, Double> expansions = expand(word);
+                if (expansions.size() == 1) {
+                    // A term lists each slot once, so its scores can go straight into the totals.
+                    expansions.forEach((term, weight) -> {
+                        Postings termPostings = postings.get(term);
+                        double idf = idf(termPostings.size);
+                        for (int i = 0; i < termPostings.size; i++) {
+                            int slot = termPostings.slots[i];
+                            if (ids[slot] == null) {
+                                continue;
+                            }
+                            if (matchedWords[slot] == 0) {
+                                matched.add(slot);
+                            }
+                            scores[slot] += (float) (weight * bm25(idf, termPostings.frequencies[i], lengths[slot], averageLength));
+                            matchedWords[slot]++;
+                        }
+                    });
+                    continue;
+                }
+
+                // A pet scores once per query word, through its best-matching expansion.
+                expansions.forEach((term, weight) -> {
+                    Postings termPostings = postings.get(term);
+                    double idf = idf(termPostings.size);
+                    for (int i = 0; i < termPostings.size; i++) {
+                        int slot = termPostings.slots[i];
+                        if (ids[slot] == null) {
+                            continue;
+                        }
+                        float score = (float) (weight * bm25(idf, termPostings.frequencies[i], lengths[slot], averageLength));
+                        if (wordScores[slot] == 0) {
+                            matchedByWord.add(slot);
+                        }
+                        wordScores[slot] = Math.max(wordScores[slot], score);
+                    }
+                });
+                for (int i = 0; i < matchedByWord.size; i++) {
+                    int slot = matchedByWord.values[i];
+                    if (matchedWords[slot] == 0) {
+                        matched.add(slot);
+                    }
+                    scores[slot] += wordScores[slot];
+                    matchedWords[slot]++;
+                    wordScores[slot] = 0;
+                }
+                matchedByWord.size = 0;
+            }
+
+            return collect(matched, scores, matchedWords, words.size(), type, status, size);
+        } finally {
+            releaseScratch(scratch);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes a pooled scratch buffer large enough for every slot. Must be called under
+     * the read lock, which keeps the slot count from changing while it is in use.
+     */
+    private Scratch acquireScratch() {
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null || scratch.capacity() < slotCount) {
+            // Grown with headroom so a steadily growing catalog doesn't reallocate on every query.
+            scratch = new Scratch(Math.max(slotCount + (slotCount >> 3), 1024));
+        }
+        return scratch;
+    }
+
+    /**
+     * Clears the slots the query touched and returns the buffer to the pool, unless
+     * the pool is already full.
+     */
+    private void releaseScratch(Scratch scratch) {
+        IntList matched = scratch.matched;
+        for (int i = 0; i < matched.size; i++) {
+            int slot = matched.values[i];
+            scratch.scores[slot] = 0;
+            scratch.matchedWords[slot] = 0;
+        }
+        matched.size = 0;
+        // Only left over when a query failed halfway through a word.
+        IntList matchedByWord = scratch.matchedByWord;
+        for (int i = 0; i < matchedByWord.size; i++) {
+            scratch.wordScores[matchedByWord.values[i]] = 0;
+        }
+        matchedByWord.size = 0;
+        scratchPool.offer(scratch);
+    }
+
+    private SearchResult collect(IntList matched, float[] scores, byte[] matchedWords, int wordCount,
+                                 PetType type, PetStatus status, int size) {
+        long[] typeCounts = new long[PetType.values().length];
+        long[] statusCounts = new long[PetStatus.values().length];
+        byte typeFilter = code(type);
+        byte statusFilter = code(status);
+        PriorityQueue<Hit> top = new PriorityQueue<>(size + 1, Hit.WORST_FIRST);
+        long total = 0;
+
+        for (int i = 0; i < matched.size; i++) {
+            int slot = matched.values[i];
+            boolean typeMatches = typeFilter == 0 || types[slot] == typeFilter;
+            boolean statusMatches = statusFilter == 0 || statuses[slot] == statusFilter;
+
+            // Each facet is counted with the other dimension's filter applied, so the
+            // counts show what selecting that value would return.
+            if (statusMatches && types[slot] != 0) {
+                typeCounts[types[slot] - 1]++;
+            }
+            if (typeMatches && statuses[slot] != 0) {
+                statusCounts[statuses[slot] - 1]++;
+            }
+            if (!typeMatches || !statusMatches) {
+                continue;
+            }
+
+            total++;
+            double score = (double) scores[slot] * matchedWords[slot] / wordCount;
+            if (top.size() < size || score > top.peek().score()) {
+                top.add(new Hit(ids[slot], score));
+                if (top.size() > size) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(Hit.WORST_FIRST.reversed());
+        return new SearchResult(ranked.stream().map(Hit::id).toList(), total,
+                facets(typeCounts, PetType.values(), PetType.class),
+                facets(statusCounts, PetStatus.values(), PetStatus.class));
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> facets(long[] counts, E[] values, Class<E> type) {
+        Map<E, Long> facets = new EnumMap<>(type);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                facets.put(values[i], counts[i]);
+            }
+        }
+        return facets;
+    }
+
+    private Map<String, Double> expand(String word) {
+        Map<String, Double> expansions = new HashMap<>();
+        if (postings.containsKey(word)) {
+            expansions.put(word, 1.0);
+        }
+
+        if (word.length() >= 2) {
+            for (String term : postings.subMap(word, false, word + Character.MAX_VALUE, false).keySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(term, PREFIX_WEIGHT);
+            }
+        }
+
+        if (expansions.isEmpty()) {
+            fuzzyTerms(word).forEach(term -> expansions.putIfAbsent(term, FUZZY_WEIGHT));
+        }
+        return expansions;
+    }
+
+    private List<String> fuzzyTerms(String word) {
+        int maxEdits = word.length() <= 3 ? 0 : word.length() <= 6 ? 1 : 2;
+        if (maxEdits == 0) {
+            return List.of();
+        }
+
+        // Every edit destroys at most three trigrams, so real candidates share at least this many.
+        Set<String> wordTrigrams = trigrams(word);
+        int minShared = Math.max(1, wordTrigrams.size() - 3 * maxEdits);
+
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : wordTrigrams) {
+            for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        List<String> candidates = new ArrayList<>();
+        shared.forEach((term, count) -> {
+            if (count >= minShared
+                    && Math.abs(term.length() - word.length()) <= maxEdits
+                    && editDistance(word, term, maxEdits) <= maxEdits) {
+                candidates.add(term);
+            }
+        });
+        candidates.sort(Comparator.comparingInt(term -> -postings.get(term).size));
+        return candidates.size() > MAX_EXPANSIONS ? candidates.subList(0, MAX_EXPANSIONS) : candidates;
+    }
+
+    private void put(Doc doc) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = slotsById.get(doc.id());
+            if (previous != null) {
+                kill(previous);
+            }
+
+            int slot = slotCount++;
+            ensureCapacity(slotCount);
+            ids[slot] = doc.id();
+            types[slot] = code(doc.type());
+            statuses[slot] = code(doc.status());
+            lengths[slot] = doc.length();
+            totalLength += doc.length();
+            slotsById.put(doc.id(), slot);
+
+            doc.terms().forEach((term, frequency) -> {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    termPostings = new Postings();
+                    postings.put(term, termPostings);
+                    for (String trigram : trigrams(term)) {
+                        termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+                    }
+                }
+                termPostings.add(slot, frequency);
+            });
+
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void kill(int slot) {
+        ids[slot] = null;
+        totalLength -= lengths[slot];
+        deadCount++;
+    }
+
+    private void compactIfSparse() {
+        if (deadCount < MIN_DEAD_TO_COMPACT || deadCount * 4 < slotCount) {
+            return;
+        }
+
+        int[] moved = new int[slotCount];
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (ids[slot] == null) {
+                moved[slot] = -1;
+                continue;
+            }
+            moved[slot] = live;
+            ids[live] = ids[slot];
+            types[live] = types[slot];
+            statuses[live] = statuses[slot];
+            lengths[live] = lengths[slot];
+            slotsById.put(ids[live], live);
+            live++;
+        }
+        for (int slot = live; slot < slotCount; slot++) {
+            ids[slot] = null;
+        }
+        slotCount = live;
+        deadCount = 0;
+
+        var terms = postings.entrySet().iterator();
+        while (terms.hasNext()) {
+            Map.Entry<String, Postings> entry = terms.next();
+            String term = entry.getKey();
+            if (entry.getValue().remap(moved) == 0) {
+                terms.remove();
+                for (String trigram : trigrams(term)) {
+                    Set<String> sharing = termsByTrigram.get(trigram);
+                    sharing.remove(term);
+                    if (sharing.isEmpty()) {
+                        termsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        types = Arrays.copyOf(types, grown);
+        statuses = Arrays.copyOf(statuses, grown);
+        lengths = Arrays.copyOf(lengths, grown);
+    }
+
+    private static byte code(Enum<?> value) {
+        return (byte) (value == null ? 0 : value.ordinal() + 1);
+    }
+
+    private static Doc toDoc(Pet pet) {
+        Map<String, Float> terms = new HashMap<>();
+        float length = addTerms(terms, pet.getName(), NAME_BOOST)
+                + addTerms(terms, pet.getBreed(), BREED_BOOST)
+                + addTerms(terms, pet.getDescription(), DESCRIPTION_BOOST);
+        return new Doc(pet.getId(), pet.getType(), pet.getStatus(), Math.max(length, 1f), terms);
+    }
+
+    private static float addTerms(Map<String, Float> terms, String text, float boost) {
+        List<String> tokens = tokenize(text);
+        tokens.forEach(token -> terms.merge(token, boost, Float::sum));
+        return tokens.size() * boost;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private double idf(int documentFrequency) {
+        // Posting lists still count dead slots until the next compaction; close enough for ranking.
+        int documents = Math.max(slotCount - deadCount, documentFrequency);
+        return Math.log(1 + (documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double bm25(double idf, double frequency, double length, double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Levenshtein distance, giving up with {@code max + 1} as soon as every cell in a row exceeds max.
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    public record SearchResult(List<UUID> ids, long total, Map<PetType, Long> typeCounts,
+                               Map<PetStatus, Long> statusCounts) {
+    }
+
+    private record Doc(UUID id, PetType type, PetStatus status, float length, Map<String, Float> terms) {
+    }
+
+    private record Hit(UUID id, double score) {
+        static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score).thenComparing(Hit::id);
+    }
+
+    private static final class Postings {
+
+        private int[] slots = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void add(int slot, float frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            slots[size] = slot;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        int remap(int[] moved) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int slot = moved[slots[i]];
+                if (slot >= 0) {
+                    slots[kept] = slot;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private static final class Scratch {
+
+        private final float[] scores;
+        private final float[] wordScores;
+        private final byte[] matchedWords;
+        private final IntList matched = new IntList();
+        private final IntList matchedByWord = new IntList();
+
+        Scratch(int capacity) {
+            scores = new float[capacity];
+            wordScores = new float[capacity];
+            matchedWords = new byte[capacity];
+        }
+
+        int capacity() {
+            return scores.length;
+        }
+    }
+}
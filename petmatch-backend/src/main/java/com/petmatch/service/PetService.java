@@ -1,43 +1,61 @@
 package com.petmatch.service;
 
+import com.petmatch.config.CacheConfig;
+import com.petmatch.dto.NearbyPetDTO;
+import com.petmatch.dto.PetPageResponseDTO;
 import com.petmatch.dto.PetRequestDTO;
 import com.petmatch.dto.PetResponseDTO;
+import com.petmatch.dto.PetSearchCriteria;
+import com.petmatch.dto.PetSearchResponseDTO;
+import com.petmatch.model.OutboxEventType;
 import com.petmatch.model.Pet;
 import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.model.ResourceVersion;
 import com.petmatch.model.User;
+import com.petmatch.repository.PetCursor;
 import com.petmatch.repository.PetRepository;
+import com.petmatch.repository.PetSpecifications;
 import com.petmatch.repository.UserRepository;
+import com.petmatch.security.CurrentUser;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed("petmatch.service")
 public class PetService {
 
     private final PetRepository petRepository;
     private final UserRepository userRepository;
+    private final PetRecommendationService petRecommendationService;
+    private final PetSearchIndex petSearchIndex;
+    private final PetGeoIndex petGeoIndex;
+    private final ResourceVersionService resourceVersionService;
+    private final OutboxService outboxService;
+    private final ShelterStatsService shelterStatsService;
+    private final CacheManager cacheManager;
 
-    public PetResponseDTO createPet(PetRequestDTO petRequestDTO){
-
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Object principal =authentication.getPrincipal();
-
-        if(!(principal instanceof UserDetails userDetails)){
-            throw new RuntimeException("Unauthenticated user");
-        }
+    private static final int MAX_PAGE_SIZE = 100;
 
-        String email = userDetails.getUsername();
+    @Transactional
+    public PetResponseDTO createPet(PetRequestDTO petRequestDTO){
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found in the database"));
+        // The owner is only needed for its foreign key, so it is never loaded.
+        User owner = userRepository.getReferenceById(CurrentUser.id());
 
         Pet pet = Pet.builder()
                 .name(petRequestDTO.getName())
@@ -47,76 +65,175 @@ public class PetService {
                 .breed(petRequestDTO.getBreed())
                 .status(PetStatus.AVAILABLE)
                 .description(petRequestDTO.getDescription())
-                .owner(user)
+                .latitude(petRequestDTO.getLatitude())
+                .longitude(petRequestDTO.getLongitude())
+                .owner(owner)
                 .build();
 
         Pet savedPet = petRepository.save(pet);
-        return mapToResponse(savedPet);
+        resourceVersionService.bump(ResourceVersion.PETS);
+        shelterStatsService.petAdded(savedPet);
+        outboxService.publish(OutboxEventType.PET_CHANGED, savedPet.getId(), null);
+        return PetResponseDTO.from(savedPet);
+    }
+
+    public PetPageResponseDTO searchPets(PetSearchCriteria criteria, String cursor, int size){
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PetCursor after = cursor == null || cursor.isBlank() ? null : PetCursor.decode(cursor);
+
+        // One extra row tells us whether another page exists without a count query.
+        List<Pet> rows = petRepository.findBy(
+                PetSpecifications.matching(criteria).and(PetSpecifications.after(after)),
+                query -> query.sortBy(PetSpecifications.CATALOG_ORDER).limit(pageSize + 1).all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Pet> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        return PetPageResponseDTO.builder()
+                .items(page.stream().map(PetResponseDTO::from).collect(Collectors.toList()))
+                .nextCursor(hasMore ? PetCursor.of(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+
+    public PetSearchResponseDTO searchPetsByText(String query, PetType type, PetStatus status, int size){
+        PetSearchIndex.SearchResult result = petSearchIndex.search(query, type, status, size);
+
+        return PetSearchResponseDTO.builder()
+                .items(loadInOrder(result.ids()))
+                .total(result.total())
+                .typeCounts(result.typeCounts())
+                .statusCounts(result.statusCounts())
+                .build();
+    }
+
+    public List<NearbyPetDTO> findNearbyPets(double latitude, double longitude, double radiusKm,
+                                             PetType type, PetStatus status, int size){
+        List<PetGeoIndex.Hit> hits = petGeoIndex.nearest(latitude, longitude, radiusKm, type, status, size);
+        Map<UUID, Pet> pets = petRepository.findAllById(hits.stream().map(PetGeoIndex.Hit::id).toList()).stream()
+                .collect(Collectors.toMap(Pet::getId, Function.identity()));
+
+        return hits.stream()
+                .filter(hit -> pets.containsKey(hit.id()))
+                .map(hit -> new NearbyPetDTO(PetResponseDTO.from(pets.get(hit.id())), hit.distanceKm()))
+                .collect(Collectors.toList());
+    }
+
+    public List<PetResponseDTO> getRecommendedPets(int limit){
+        return loadInOrder(petRecommendationService.recommend(CurrentUser.id(), limit));
     }
 
-    public List<PetResponseDTO> getAllPets(){
-        return petRepository.findAll().stream()
-                .map(this::mapToResponse)
+    private List<PetResponseDTO> loadInOrder(List<UUID> ids){
+        Map<UUID, Pet> pets = petRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Pet::getId, Function.identity()));
+
+        // Keep the ranking order; skip anything deleted since it was ranked.
+        return ids.stream()
+                .map(pets::get)
+                .filter(Objects::nonNull)
+                .map(PetResponseDTO::from)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Validator for every catalog listing: changes on any pet write, read with one
+     * primary-key lookup.
+     */
+    public String getCatalogETag(){
+        return "\"pets-" + resourceVersionService.current(ResourceVersion.PETS) + "\"";
+    }
+
+    /**
+     * Validator for a single pet from its optimistic-lock version, or null if it doesn't exist.
+     */
+    public String getPetETag(UUID id){
+        return petRepository.findVersionById(id)
+                .map(version -> "\"" + id + "-" + version + "\"")
+                .orElse(null);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PETS, key = "#id")
     public PetResponseDTO getPetById(UUID id){
 
         Pet pet = petRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Pet not found"));
-        return mapToResponse(pet);
+        return PetResponseDTO.from(pet);
 
     }
 
+    @Transactional
     public PetResponseDTO updatePet(UUID id, PetRequestDTO petRequestDTO){
         Pet pet = petRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Pet not found"));
 
+        PetType previousType = pet.getType();
         pet.setName(petRequestDTO.getName());
         pet.setAge(petRequestDTO.getAge());
         pet.setType(petRequestDTO.getType());
         pet.setDescription(petRequestDTO.getDescription());
+        pet.setLatitude(petRequestDTO.getLatitude());
+        pet.setLongitude(petRequestDTO.getLongitude());
 
-        return mapToResponse(petRepository.save(pet));
+        Pet savedPet = petRepository.save(pet);
+        resourceVersionService.bump(ResourceVersion.PETS);
+        shelterStatsService.petChanged(savedPet, previousType, savedPet.getStatus());
+        outboxService.publish(OutboxEventType.PET_CHANGED, savedPet.getId(), null);
+        evictAfterCommit(id);
+        return PetResponseDTO.from(savedPet);
 
     }
+    /**
+     * Deletes the pet with a single statement. Only the columns the shelter counters
+     * need are read beforehand; a pet that is gone by the time of the delete, or never
+     * existed, is reported as not found.
+     */
+    @Transactional
     public void deletePet(UUID id){
-        if(!petRepository.existsById(id)){
-            throw  new EntityNotFoundException("Pet noy found");
+        PetRepository.CountedPet pet = petRepository.findCountedById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Pet not found"));
+        if (petRepository.removeById(id) == 0) {
+            throw new EntityNotFoundException("Pet not found");
         }
-        petRepository.deleteById(id);
+        resourceVersionService.bump(ResourceVersion.PETS);
+        shelterStatsService.petRemoved(pet);
+        outboxService.publish(OutboxEventType.PET_CHANGED, id, null);
+        evictAfterCommit(id);
     }
 
     public List<PetResponseDTO> getPetsByUserId(UUID userId){
         return petRepository.findByOwnerId(userId)
                 .stream()
-                .map(this::mapToResponse)
+                .map(PetResponseDTO::from)
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public PetResponseDTO updatePetStatus(UUID id, PetStatus newStatus) {
         Pet pet = petRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Pet not found"));
 
+        PetStatus previousStatus = pet.getStatus();
         pet.setStatus(newStatus);
         Pet updated = petRepository.save(pet);
+        resourceVersionService.bump(ResourceVersion.PETS);
+        shelterStatsService.petChanged(updated, updated.getType(), previousStatus);
+        outboxService.publish(OutboxEventType.PET_CHANGED, updated.getId(), null);
+        evictAfterCommit(id);
 
-        return mapToResponse(updated);
+        return PetResponseDTO.from(updated);
     }
 
-
-    private PetResponseDTO mapToResponse(Pet pet) {
-        return PetResponseDTO.builder()
-                .id(pet.getId())
-                .name(pet.getName())
-                .age(pet.getAge())
-                .type(pet.getType())
-                .breed(pet.getBreed())
-                .gender(pet.getGender())
-                .description(pet.getDescription())
-                .build();
+    /**
+     * Drops this node's cached copy once the write commits; evicting or refreshing it
+     * earlier would let a concurrent read cache the old row again, or leave a rolled
+     * back one. Other nodes, and writes made elsewhere, are evicted by
+     * {@link PetChangedHandler}.
+     */
+    private void evictAfterCommit(UUID id) {
+        Cache pets = cacheManager.getCache(CacheConfig.PETS);
+        if (pets != null) {
+            AfterCommit.run(() -> pets.evict(id));
+        }
     }
 
 
-
 }
@@ -0,0 +1,67 @@
+package com.petmatch.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-node memory of (applicant, pet) pairs that are known to have a request, so a
+ * repeated submission (a double click, a client retry) is turned away without a
+ * failed insert. Membership is exact, unlike a Bloom filter, so a first request is
+ * never refused here; pairs are only recorded once their insert, or the unique
+ * constraint that rejected it, has proven a row exists. A request deleted through
+ * another node stays remembered here until the entry expires, which is why callers
+ * confirm a hit against the database before refusing.
+ */
+@Component
+public class RecentAdoptionRequests {
+
+    private final Cache<Pair, Boolean> pairs;
+
+    public RecentAdoptionRequests(@Value("${petmatch.adoptions.recent-requests.enabled:true}") boolean enabled,
+                                  @Value("${petmatch.adoptions.recent-requests.max-size:100000}") long maxSize,
+                                  @Value("${petmatch.adoptions.recent-requests.ttl:5m}") Duration ttl) {
+        this.pairs = enabled
+                ? Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build()
+                : null;
+    }
+
+    public boolean contains(UUID applicantId, UUID petId) {
+        return pairs != null && pairs.getIfPresent(new Pair(applicantId, petId)) != null;
+    }
+
+    /**
+     * Remembers the pair once the surrounding transaction commits.
+     */
+    public void add(UUID applicantId, UUID petId) {
+        if (pairs != null) {
+            AfterCommit.run(() -> pairs.put(new Pair(applicantId, petId), Boolean.TRUE));
+        }
+    }
+
+    /**
+     * Remembers a pair the database has just reported as taken, whatever happens to
+     * the current transaction.
+     */
+    public void addExisting(UUID applicantId, UUID petId) {
+        if (pairs != null) {
+            pairs.put(new Pair(applicantId, petId), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Forgets the pair once the surrounding transaction commits.
+     */
+    public void remove(UUID applicantId, UUID petId) {
+        if (pairs != null) {
+            AfterCommit.run(() -> pairs.invalidate(new Pair(applicantId, petId)));
+        }
+    }
+
+    private record Pair(UUID applicantId, UUID petId) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.petmatch.service;
+
+import com.petmatch.model.ResourceVersion;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Timed("petmatch.service")
+public class ResourceVersionService {
+
+    private final EntityManager entityManager;
+
+    public long current(ResourceVersion resource) {
+        return ((Number) entityManager.createNativeQuery("SELECT last_value FROM " + resource.sequence())
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * Moves the collection's version on once the caller's transaction commits.
+     * Advancing a sequence takes no row lock, so concurrent writers never wait on
+     * each other here. Bumping only after the commit means a reader that saw the
+     * old data can never have been handed the new version with it; a reader between
+     * the commit and the bump revalidates again right after.
+     */
+    public void bump(ResourceVersion resource) {
+        AfterCommit.run(() -> {
+            try {
+                entityManager.createNativeQuery("SELECT nextval('" + resource.sequence() + "')").getSingleResult();
+            } catch (RuntimeException ex) {
+                // The write is committed; a missed bump only delays revalidation until the next one.
+                log.warn("Could not bump the {} version", resource, ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,254 @@
+package com.petmatch.service;
+
+import com.petmatch.dto.ShelterStatsDTO;
+import com.petmatch.model.AdoptionRequest;
+import com.petmatch.model.AdoptionStatus;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.model.ShelterStatCounter;
+import com.petmatch.repository.AdoptionRequestRepository;
+import com.petmatch.repository.PetRepository;
+import com.petmatch.repository.ShelterStatCounterRepository;
+import com.petmatch.security.CurrentUser;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Dashboard statistics for shelters, kept as pre-aggregated counters.
+ * <p>
+ * Every pet and adoption request write reports what it changed here, and the
+ * matching counters in {@code shelter_stat_counters} are adjusted by a delta in the
+ * same transaction. Reading a dashboard is then one indexed lookup of a dozen rows,
+ * however many pets or requests the shelter has. The counters can always be
+ * recomputed from the source tables with {@link #rebuild(UUID)}; existing data was
+ * counted once by the V6 migration.
+ */
+@Service
+@RequiredArgsConstructor
+@Timed("petmatch.service")
+public class ShelterStatsService {
+
+    static final String ADOPTIONS = "adoptions.count";
+    static final String ADOPTION_SECONDS = "adoptions.seconds";
+
+    private final ShelterStatCounterRepository counterRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void petAdded(Pet pet) {
+        petsAdded(ownerId(pet), List.of(pet));
+    }
+
+    /**
+     * Counts a batch of new pets of one owner with a single update per counter.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void petsAdded(UUID ownerId, Collection<Pet> pets) {
+        Deltas deltas = new Deltas();
+        for (Pet pet : pets) {
+            deltas.add(petStatus(pet.getStatus()), 1);
+            deltas.add(petType(pet.getType()), 1);
+        }
+        deltas.applyTo(ownerId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void petChanged(Pet pet, PetType previousType, PetStatus previousStatus) {
+        Deltas deltas = new Deltas();
+        deltas.add(petType(previousType), -1);
+        deltas.add(petType(pet.getType()), 1);
+        deltas.add(petStatus(previousStatus), -1);
+        deltas.add(petStatus(pet.getStatus()), 1);
+        deltas.applyTo(ownerId(pet));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void petRemoved(PetRepository.CountedPet pet) {
+        Deltas deltas = new Deltas();
+        deltas.add(petType(pet.type()), -1);
+        deltas.add(petStatus(pet.status()), -1);
+        deltas.applyTo(pet.ownerId());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestAdded(AdoptionRequest request) {
+        Deltas deltas = new Deltas();
+        deltas.add(requestStatus(request.getStatus()), 1);
+        deltas.applyTo(ownerId(request.getPet()));
+    }
+
+    /**
+     * Moves a request between status counters. Approving one records an adoption
+     * that took from the pet's listing until now; moving away from approved takes it
+     * back out. Must be called before the change is flushed, while the request's
+     * {@code updatedAt} still says when it was approved.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestStatusChanged(AdoptionRequest request, AdoptionStatus previousStatus) {
+        if (request.getStatus() == previousStatus) {
+            return;
+        }
+        Deltas deltas = new Deltas();
+        deltas.add(requestStatus(previousStatus), -1);
+        deltas.add(requestStatus(request.getStatus()), 1);
+        if (request.getStatus() == AdoptionStatus.APPROVED) {
+            deltas.adoption(request.getPet().getCreatedAt(), LocalDateTime.now(), 1);
+        } else if (previousStatus == AdoptionStatus.APPROVED) {
+            deltas.adoption(request.getPet().getCreatedAt(), request.getUpdatedAt(), -1);
+        }
+        deltas.applyTo(ownerId(request.getPet()));
+    }
+
+    /**
+     * Counts pending requests for a pet that were rejected in bulk.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestsRejected(Pet pet, int count) {
+        Deltas deltas = new Deltas();
+        deltas.add(requestStatus(AdoptionStatus.PENDING), -count);
+        deltas.add(requestStatus(AdoptionStatus.REJECTED), count);
+        deltas.applyTo(ownerId(pet));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestRemoved(AdoptionRequestRepository.CountedRequest request) {
+        Deltas deltas = new Deltas();
+        deltas.add(requestStatus(request.status()), -1);
+        if (request.status() == AdoptionStatus.APPROVED) {
+            deltas.adoption(request.petCreatedAt(), request.updatedAt(), -1);
+        }
+        deltas.applyTo(request.ownerId());
+    }
+
+    public ShelterStatsDTO getStatsForCurrentUser() {
+        return getStats(CurrentUser.id());
+    }
+
+    public ShelterStatsDTO getStats(UUID ownerId) {
+        return toStats(counterRepository.findByOwnerId(ownerId).stream()
+                .collect(Collectors.toMap(ShelterStatCounter::getName, ShelterStatCounter::getAmount)));
+    }
+
+    @Transactional
+    public ShelterStatsDTO rebuildForCurrentUser() {
+        return rebuild(CurrentUser.id());
+    }
+
+    /**
+     * Recomputes one shelter's counters from the pets and requests tables. Its
+     * existing counter rows are locked first, so writes for the shelter wait until
+     * the recount commits instead of being lost in it.
+     */
+    @Transactional
+    public ShelterStatsDTO rebuild(UUID ownerId) {
+        counterRepository.lockByOwnerId(ownerId);
+
+        Deltas counts = new Deltas();
+        for (ShelterStatCounterRepository.PetCount count : counterRepository.countPets(ownerId)) {
+            counts.add(petStatus(count.status()), count.count());
+            counts.add(petType(count.type()), count.count());
+        }
+        for (ShelterStatCounterRepository.RequestCount count : counterRepository.countRequests(ownerId)) {
+            counts.add(requestStatus(count.status()), count.count());
+        }
+        ShelterStatCounterRepository.AdoptionTotals adoptions = counterRepository.sumAdoptions(ownerId);
+        counts.add(ADOPTIONS, adoptions.adoptions());
+        counts.add(ADOPTION_SECONDS, adoptions.seconds() != null ? adoptions.seconds().longValue() : 0);
+
+        counterRepository.deleteByOwnerId(ownerId);
+        counts.applyTo(ownerId);
+        return toStats(counts.values);
+    }
+
+    private static UUID ownerId(Pet pet) {
+        return pet.getOwner() != null ? pet.getOwner().getId() : null;
+    }
+
+    static String petStatus(PetStatus status) {
+        return "pets.status." + status;
+    }
+
+    static String petType(PetType type) {
+        return "pets.type." + type;
+    }
+
+    static String requestStatus(AdoptionStatus status) {
+        return "requests.status." + status;
+    }
+
+    private static ShelterStatsDTO toStats(Map<String, Long> counters) {
+        Map<PetStatus, Long> petsByStatus = new EnumMap<>(PetStatus.class);
+        for (PetStatus status : PetStatus.values()) {
+            petsByStatus.put(status, counters.getOrDefault(petStatus(status), 0L));
+        }
+        Map<PetType, Long> petsByType = new EnumMap<>(PetType.class);
+        for (PetType type : PetType.values()) {
+            petsByType.put(type, counters.getOrDefault(petType(type), 0L));
+        }
+        Map<AdoptionStatus, Long> requestsByStatus = new EnumMap<>(AdoptionStatus.class);
+        for (AdoptionStatus status : AdoptionStatus.values()) {
+            requestsByStatus.put(status, counters.getOrDefault(requestStatus(status), 0L));
+        }
+        long adoptions = counters.getOrDefault(ADOPTIONS, 0L);
+
+        return ShelterStatsDTO.builder()
+                .totalPets(petsByStatus.values().stream().mapToLong(Long::longValue).sum())
+                .petsByStatus(petsByStatus)
+                .petsByType(petsByType)
+                .requestsByStatus(requestsByStatus)
+                .adoptions(adoptions)
+                .averageSecondsToAdoption(adoptions > 0 ? counters.getOrDefault(ADOPTION_SECONDS, 0L) / adoptions : null)
+                .build();
+    }
+
+    /**
+     * Counter changes of one write, netted per counter before they touch the table.
+     */
+    private final class Deltas {
+
+        // Sorted, so every transaction locks a shelter's counter rows in the same
+        // order and two writes for the same shelter can't deadlock.
+        private final Map<String, Long> values = new TreeMap<>();
+
+        void add(String name, long delta) {
+            values.merge(name, delta, Long::sum);
+        }
+
+        /**
+         * An adoption counts only when both times are known, here as in
+         * {@code sumAdoptions} and V6, so a request leaves the counters by the same
+         * rule that put it in.
+         */
+        void adoption(LocalDateTime listedAt, LocalDateTime adoptedAt, int sign) {
+            if (listedAt == null || adoptedAt == null) {
+                return;
+            }
+            add(ADOPTIONS, sign);
+            add(ADOPTION_SECONDS, sign * Duration.between(listedAt, adoptedAt).toSeconds());
+        }
+
+        void applyTo(UUID ownerId) {
+            if (ownerId == null) {
+                return;
+            }
+            values.forEach((name, delta) -> {
+                if (delta != 0) {
+                    counterRepository.add(ownerId, name, delta);
+                }
+            });
+        }
+    }
+}
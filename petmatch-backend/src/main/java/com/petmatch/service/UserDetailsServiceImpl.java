@@ -1,8 +1,10 @@
 package com.petmatch.service;
 
+import com.petmatch.config.CacheConfig;
 import com.petmatch.repository.UserRepository;
+import com.petmatch.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,9 +15,15 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    /**
+     * Caches the immutable principal rather than the entity, so no password hash or
+     * mutable detached entity is kept. An unknown email throws, and misses are not cached.
+     */
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#email")
+    public AuthenticatedUser loadUserByUsername(String email) throws UsernameNotFoundException {
         return userRepository.findByEmail(email)
+                .map(AuthenticatedUser::of)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 }
@@ -1,21 +1,25 @@
 package com.petmatch.service;
 
+import com.petmatch.config.CacheConfig;
 import com.petmatch.dto.UserRequestDTO;
 import com.petmatch.dto.UserResponseDTO;
 import com.petmatch.model.Role;
 import com.petmatch.model.User;
 import com.petmatch.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
+@Timed("petmatch.service")
 public class UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHasher passwordHasher;
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#userRequestDTO.email")
     public UserResponseDTO createUser(UserRequestDTO userRequestDTO) {
         if (userRepository.findByEmail(userRequestDTO.getEmail()).isPresent()) {
             throw new RuntimeException("Email already in use");
@@ -24,16 +28,10 @@ public class UserService {
         User user = User.builder()
                 .name(userRequestDTO.getName())
                 .email(userRequestDTO.getEmail())
-                .password(passwordEncoder.encode(userRequestDTO.getPassword()))
+                .password(passwordHasher.encode(userRequestDTO.getPassword()))
                 .role(userRequestDTO.getRole() != null ? userRequestDTO.getRole() : Role.ADOPTER)
                 .build();
 
-        User savedUser = userRepository.save(user);
-        return new UserResponseDTO(
-                savedUser.getId(),
-                savedUser.getName(),
-                savedUser.getEmail(),
-                savedUser.getRole()
-        );
+        return UserResponseDTO.from(userRepository.save(user));
     }
 }
@@ -0,0 +1,48 @@
+-- The schema Hibernate's ddl-auto=update created for the last release before
+-- migrations took over, statement for statement, so that fresh databases and
+-- databases baselined at this version (which skip this script) end up with the
+-- same tables and the same constraint names from here on.
+
+CREATE TABLE adoption_requests (
+    created_at   timestamp(6) NOT NULL,
+    applicant_id uuid NOT NULL,
+    id           uuid NOT NULL,
+    pet_id       uuid NOT NULL,
+    message      varchar(1000),
+    status       varchar(255) NOT NULL CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE pets (
+    age         integer,
+    type        smallint NOT NULL CHECK (type BETWEEN 0 AND 4),
+    created_at  timestamp(6),
+    id          uuid NOT NULL,
+    user_id     uuid,
+    breed       varchar(255),
+    description varchar(255),
+    gender      varchar(255),
+    name        varchar(255) NOT NULL,
+    size        varchar(255),
+    status      varchar(255) NOT NULL CHECK (status IN ('AVAILABLE', 'PENDING', 'ADOPTED')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    created_at timestamp(6),
+    id         uuid NOT NULL,
+    email      varchar(255) NOT NULL UNIQUE,
+    name       varchar(255) NOT NULL,
+    password   varchar(255) NOT NULL,
+    role       varchar(255) NOT NULL CHECK (role IN ('USER', 'ADMIN', 'ADOPTER', 'SHELTER')),
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE adoption_requests
+    ADD CONSTRAINT FKfiquo1yi2fy13fw43bvycbn2l FOREIGN KEY (applicant_id) REFERENCES users;
+
+ALTER TABLE adoption_requests
+    ADD CONSTRAINT FKnbrvxfu9ncpliue6x29ohsyno FOREIGN KEY (pet_id) REFERENCES pets;
+
+ALTER TABLE pets
+    ADD CONSTRAINT FKc47kjb41qf50bwgddm024m5xn FOREIGN KEY (user_id) REFERENCES users;
@@ -0,0 +1,101 @@
+-- Everything the entities gained on top of the V1 baseline: optimistic locking,
+-- coordinates, the outbox, the shelter counters and the catalog version.
+--
+-- Adoption requests become unique per adopter and pet. Where an adopter applied
+-- more than once, the request that got furthest is kept (approved, then pending,
+-- then rejected), as it is the one the shelter acted on; among equals, the newest,
+-- as it carries the adopter's latest message. The other requests are moved, not
+-- deleted, to adoption_request_duplicates, each pointing at the request that was
+-- kept, and the migration reports how many it moved.
+
+-- Pets created outside the application may have no creation time; the catalog
+-- orders by it, so they are dated to the migration.
+UPDATE pets SET created_at = localtimestamp WHERE created_at IS NULL;
+
+ALTER TABLE pets
+    ALTER COLUMN created_at SET NOT NULL,
+    ADD COLUMN updated_at timestamp(6),
+    ADD COLUMN version    bigint NOT NULL DEFAULT 0,
+    ADD COLUMN latitude   float(53),
+    ADD COLUMN longitude  float(53);
+
+CREATE INDEX idx_pets_created_at_id ON pets (created_at, id);
+CREATE INDEX idx_pets_status_type_created_at_id ON pets (status, type, created_at, id);
+CREATE INDEX idx_pets_user_id ON pets (user_id);
+
+ALTER TABLE adoption_requests
+    ADD COLUMN updated_at timestamp(6),
+    ADD COLUMN version    bigint NOT NULL DEFAULT 0;
+
+-- Nothing stopped an adopter from applying twice for the same pet before. Keep
+-- one request per pair as described above and archive the rest.
+CREATE TABLE adoption_request_duplicates (
+    LIKE adoption_requests,
+    kept_request_id uuid NOT NULL,
+    CONSTRAINT pk_adoption_request_duplicates PRIMARY KEY (id)
+);
+
+INSERT INTO adoption_request_duplicates
+SELECT r.*, ranked.kept_request_id
+FROM adoption_requests r
+JOIN (
+    SELECT id,
+           row_number() OVER pair AS rank,
+           first_value(id) OVER pair AS kept_request_id
+    FROM adoption_requests
+    WINDOW pair AS (
+        PARTITION BY applicant_id, pet_id
+        ORDER BY CASE status WHEN 'APPROVED' THEN 0 WHEN 'PENDING' THEN 1 ELSE 2 END,
+                 created_at DESC,
+                 id
+    )
+) ranked ON ranked.id = r.id
+WHERE ranked.rank > 1;
+
+DELETE FROM adoption_requests r
+USING adoption_request_duplicates d
+WHERE r.id = d.id;
+
+DO $$
+DECLARE
+    moved bigint;
+BEGIN
+    SELECT count(*) INTO moved FROM adoption_request_duplicates;
+    IF moved > 0 THEN
+        RAISE NOTICE 'Moved % duplicate adoption request(s) to adoption_request_duplicates', moved;
+    END IF;
+END
+$$;
+
+ALTER TABLE adoption_requests
+    ADD CONSTRAINT uk_adoption_requests_applicant_pet UNIQUE (applicant_id, pet_id);
+
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_events (
+    id           bigint       NOT NULL,
+    type         varchar(40)  NOT NULL,
+    aggregate_id uuid         NOT NULL,
+    payload      text,
+    attempts     integer      NOT NULL,
+    created_at   timestamp(6) NOT NULL,
+    available_at timestamp(6) NOT NULL,
+    failed_at    timestamp(6),
+    last_error   varchar(500),
+    CONSTRAINT pk_outbox_events PRIMARY KEY (id),
+    CONSTRAINT ck_outbox_events_type
+        CHECK (type IN ('PET_CHANGED', 'ADOPTION_REQUESTED', 'ADOPTION_STATUS_CHANGED'))
+);
+
+CREATE TABLE shelter_stat_counters (
+    owner_id uuid        NOT NULL,
+    name     varchar(64) NOT NULL,
+    amount   bigint      NOT NULL,
+    CONSTRAINT pk_shelter_stat_counters PRIMARY KEY (owner_id, name)
+);
+
+-- The catalog's version: ResourceVersionService advances it after every committed
+-- pet write and the catalog ETag is its last value. Marked as called, or the
+-- first write would return the start value and leave the last value unchanged.
+CREATE SEQUENCE pets_version_seq;
+SELECT setval('pets_version_seq', 1);
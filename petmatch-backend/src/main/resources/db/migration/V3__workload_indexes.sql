@@ -0,0 +1,21 @@
+-- Indexes for the queries in PetRepository, AdoptionRequestRepository,
+-- ShelterStatCounterRepository and OutboxEventRepository.
+
+-- Available pets, newest first: the default catalog and the recommendation
+-- catalog, with and without a type filter. Partial, so adopted pets, which pile
+-- up over time, never enter these indexes. PetSpecifications inlines the status
+-- as a literal so the planner can match the predicate even in a cached plan.
+CREATE INDEX idx_pets_available_created_at_id
+    ON pets (created_at, id) WHERE status = 'AVAILABLE';
+CREATE INDEX idx_pets_available_type_created_at_id
+    ON pets (type, created_at, id) WHERE status = 'AVAILABLE';
+
+-- Requests for a pet (approval, the pet's request list, joins from a shelter's
+-- pets) and the pending ones among them, which approval rejects in bulk. Status
+-- in the key also lets the dashboard count requests by status from the index.
+CREATE INDEX idx_adoption_requests_pet_id_status
+    ON adoption_requests (pet_id, status);
+
+-- The dispatcher only claims events that have not been parked as failed.
+CREATE INDEX idx_outbox_events_pending_available_at_id
+    ON outbox_events (available_at, id) WHERE failed_at IS NULL;
@@ -0,0 +1,45 @@
+-- Enums move from their names (or, for pets.type, Hibernate's ordinal) to the
+-- stable smallint codes declared on each enum (CodedEnum). pets.type keeps its
+-- values and its check: its codes are the ordinals it was stored with. The other
+-- checks go by the names PostgreSQL gave V1's inline checks.
+
+-- Their predicates compare status to a name; recreated below against the code.
+DROP INDEX idx_pets_available_created_at_id;
+DROP INDEX idx_pets_available_type_created_at_id;
+
+ALTER TABLE pets DROP CONSTRAINT pets_status_check;
+
+ALTER TABLE pets
+    ALTER COLUMN status TYPE smallint USING CASE status
+        WHEN 'AVAILABLE' THEN 0
+        WHEN 'PENDING' THEN 1
+        WHEN 'ADOPTED' THEN 2
+    END,
+    ADD CONSTRAINT pets_status_check CHECK (status BETWEEN 0 AND 2);
+
+-- status 0 is PetStatus.AVAILABLE
+CREATE INDEX idx_pets_available_created_at_id
+    ON pets (created_at, id) WHERE status = 0;
+CREATE INDEX idx_pets_available_type_created_at_id
+    ON pets (type, created_at, id) WHERE status = 0;
+
+ALTER TABLE adoption_requests DROP CONSTRAINT adoption_requests_status_check;
+
+ALTER TABLE adoption_requests
+    ALTER COLUMN status TYPE smallint USING CASE status
+        WHEN 'PENDING' THEN 0
+        WHEN 'APPROVED' THEN 1
+        WHEN 'REJECTED' THEN 2
+    END,
+    ADD CONSTRAINT adoption_requests_status_check CHECK (status BETWEEN 0 AND 2);
+
+ALTER TABLE users DROP CONSTRAINT users_role_check;
+
+ALTER TABLE users
+    ALTER COLUMN role TYPE smallint USING CASE role
+        WHEN 'USER' THEN 0
+        WHEN 'ADMIN' THEN 1
+        WHEN 'ADOPTER' THEN 2
+        WHEN 'SHELTER' THEN 3
+    END,
+    ADD CONSTRAINT users_role_check CHECK (role BETWEEN 0 AND 3);
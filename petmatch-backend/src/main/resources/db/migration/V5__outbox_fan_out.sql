@@ -0,0 +1,12 @@
+-- Events for node-local state (indexes, open streams) are read by every node
+-- instead of being claimed by one. Each node follows them in the order of the
+-- transaction that wrote them and only reads transactions older than every one
+-- still running, so an event can never commit behind a node's position.
+-- xid8 is stored as bigint (64-bit, epoch included) so it maps to a Java long.
+ALTER TABLE outbox_events
+    ADD COLUMN tx_id bigint NOT NULL DEFAULT CAST(CAST(pg_current_xact_id() AS text) AS bigint);
+
+CREATE INDEX idx_outbox_events_tx_id_id ON outbox_events (tx_id, id);
+
+-- Read events are kept for a retention period and pruned by age.
+CREATE INDEX idx_outbox_events_created_at ON outbox_events (created_at);
@@ -0,0 +1,51 @@
+-- Fills the shelter dashboard counters from the source tables, once per database.
+-- This used to happen when a node started with an empty counters table, and nodes
+-- starting together could both fill it. The counters are recounted from scratch,
+-- so totals doubled that way are corrected as well. The lock holds back counter
+-- updates from nodes still running until the recount commits; their writes are
+-- then applied on top of it. Names and sums match ShelterStatsService.rebuild.
+-- An approved request counts as an adoption only when both its listing and its
+-- approval time are known, so adoptions.count and adoptions.seconds always cover
+-- the same requests. Legacy requests that were never updated are left out of both.
+LOCK TABLE shelter_stat_counters IN SHARE ROW EXCLUSIVE MODE;
+
+DELETE FROM shelter_stat_counters;
+
+INSERT INTO shelter_stat_counters (owner_id, name, amount)
+SELECT user_id,
+       'pets.status.' || CASE status WHEN 0 THEN 'AVAILABLE' WHEN 1 THEN 'PENDING' WHEN 2 THEN 'ADOPTED' END,
+       count(*)
+FROM pets
+WHERE user_id IS NOT NULL
+GROUP BY user_id, status;
+
+INSERT INTO shelter_stat_counters (owner_id, name, amount)
+SELECT user_id,
+       'pets.type.' || CASE type WHEN 0 THEN 'DOG' WHEN 1 THEN 'CAT' WHEN 2 THEN 'BIRD' WHEN 3 THEN 'REPTILE' WHEN 4 THEN 'OTHER' END,
+       count(*)
+FROM pets
+WHERE user_id IS NOT NULL
+GROUP BY user_id, type;
+
+INSERT INTO shelter_stat_counters (owner_id, name, amount)
+SELECT p.user_id,
+       'requests.status.' || CASE r.status WHEN 0 THEN 'PENDING' WHEN 1 THEN 'APPROVED' WHEN 2 THEN 'REJECTED' END,
+       count(*)
+FROM adoption_requests r
+JOIN pets p ON p.id = r.pet_id
+WHERE p.user_id IS NOT NULL
+GROUP BY p.user_id, r.status;
+
+INSERT INTO shelter_stat_counters (owner_id, name, amount)
+SELECT p.user_id, 'adoptions.count', count(*)
+FROM adoption_requests r
+JOIN pets p ON p.id = r.pet_id
+WHERE p.user_id IS NOT NULL AND r.status = 1 AND r.updated_at IS NOT NULL AND p.created_at IS NOT NULL
+GROUP BY p.user_id;
+
+INSERT INTO shelter_stat_counters (owner_id, name, amount)
+SELECT p.user_id, 'adoptions.seconds', CAST(trunc(sum(extract(EPOCH FROM r.updated_at - p.created_at))) AS bigint)
+FROM adoption_requests r
+JOIN pets p ON p.id = r.pet_id
+WHERE p.user_id IS NOT NULL AND r.status = 1 AND r.updated_at IS NOT NULL AND p.created_at IS NOT NULL
+GROUP BY p.user_id;
@@ -0,0 +1,10 @@
+-- Every outbox handler is read by every node (V5), so nothing claims events any
+-- more: drop the index used to claim them and the columns that tracked retries and
+-- parking of claimed events. Outbox inserts no longer maintain them.
+DROP INDEX idx_outbox_events_pending_available_at_id;
+
+ALTER TABLE outbox_events
+    DROP COLUMN attempts,
+    DROP COLUMN available_at,
+    DROP COLUMN failed_at,
+    DROP COLUMN last_error;
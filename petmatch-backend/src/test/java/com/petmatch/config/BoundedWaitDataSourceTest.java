@@ -0,0 +1,61 @@
+package com.petmatch.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedWaitDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    private final Counter rejected = new SimpleMeterRegistry().counter("rejected");
+
+    @Test
+    void shouldTurnAwayCallersBeyondTheWaitLimit() throws Exception {
+        CountDownLatch waiting = new CountDownLatch(1);
+        CountDownLatch freed = new CountDownLatch(1);
+        when(pool.getConnection()).thenAnswer(invocation -> {
+            waiting.countDown();
+            freed.await();
+            return connection;
+        });
+        BoundedWaitDataSource dataSource = new BoundedWaitDataSource(pool, 1, rejected);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Connection> first = executor.submit(() -> dataSource.getConnection());
+            assertTrue(waiting.await(5, TimeUnit.SECONDS));
+
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertEquals(1, rejected.count());
+
+            freed.countDown();
+            assertSame(connection, first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The line is free again once the first caller got its connection.
+        assertSame(connection, dataSource.getConnection());
+    }
+}
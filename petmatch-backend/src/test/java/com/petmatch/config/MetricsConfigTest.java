@@ -0,0 +1,77 @@
+package com.petmatch.config;
+
+import com.petmatch.dto.LoginRequestDTO;
+import com.petmatch.model.User;
+import com.petmatch.repository.UserRepository;
+import com.petmatch.service.AuthService;
+import com.petmatch.service.PasswordHasher;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsConfigTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthService authService;
+    private LoginRequestDTO loginRequest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new AuthService(userRepository, passwordHasher));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new MetricsConfig().timedAspect(meterRegistry));
+        authService = proxyFactory.getProxy();
+
+        loginRequest = new LoginRequestDTO();
+        loginRequest.setEmail("gaby@example.com");
+        loginRequest.setPassword("secret123");
+    }
+
+    @Test
+    void shouldTimeServiceMethodCalls() {
+        User user = User.builder().email("gaby@example.com").password("hashed").build();
+        when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("secret123", "hashed")).thenReturn(true);
+
+        authService.authenticate(loginRequest);
+
+        Timer timer = meterRegistry.get("petmatch.service")
+                .tag("class", AuthService.class.getName())
+                .tag("method", "authenticate")
+                .tag("exception", "none")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void shouldTagFailedCallsWithException() {
+        when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> authService.authenticate(loginRequest));
+
+        Timer timer = meterRegistry.get("petmatch.service")
+                .tag("method", "authenticate")
+                .tag("exception", "RuntimeException")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+}
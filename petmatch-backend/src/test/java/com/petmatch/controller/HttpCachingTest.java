@@ -0,0 +1,61 @@
+package com.petmatch.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCachingTest {
+
+    private final AtomicInteger bodyLoads = new AtomicInteger();
+
+    @Test
+    void shouldReturnBodyWithETagOnFirstRequest() {
+        ResponseEntity<String> response = HttpCaching.conditional(request(null), "\"pets-7\"", HttpCaching.CATALOG, this::load);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"pets-7\"", response.getHeaders().getETag());
+        assertEquals("max-age=10, private", response.getHeaders().getCacheControl());
+        assertEquals("body", response.getBody());
+        assertEquals(1, bodyLoads.get());
+    }
+
+    @Test
+    void shouldReturnNotModifiedWithoutLoadingBody() {
+        ResponseEntity<String> response = HttpCaching.conditional(request("\"pets-7\""), "\"pets-7\"", HttpCaching.CATALOG, this::load);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"pets-7\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(0, bodyLoads.get());
+    }
+
+    @Test
+    void shouldReloadWhenVersionChanged() {
+        ResponseEntity<String> response = HttpCaching.conditional(request("\"pets-7\""), "\"pets-8\"", HttpCaching.REVALIDATE, this::load);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+        assertEquals(1, bodyLoads.get());
+    }
+
+    private String load() {
+        bodyLoads.incrementAndGet();
+        return "body";
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/pets");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,41 @@
+package com.petmatch.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void shouldReportAdoptionConflictsAsConflict() {
+        ResponseEntity<?> response = handler.handleAdoptionConflict(
+                new AdoptionConflictException("This pet has already been adopted"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(Map.of("error", "This pet has already been adopted"), response.getBody());
+    }
+
+    @Test
+    void shouldKeepOtherRuntimeErrorsAsBadRequest() {
+        ResponseEntity<?> response = handler.handleRuntime(new RuntimeException("Email already in use"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void shouldAskToRetryWhenNoConnectionCouldBeHad() {
+        ResponseEntity<?> response = handler.handleNoConnection(
+                new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,75 @@
+package com.petmatch.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodedEnumConverterTest {
+
+    @Test
+    void shouldKeepStoredCodes() {
+        // Stored in the database: changing any of these needs a data migration.
+        assertCodes(Map.of(PetType.DOG, 0, PetType.CAT, 1, PetType.BIRD, 2, PetType.REPTILE, 3, PetType.OTHER, 4));
+        assertCodes(Map.of(PetStatus.AVAILABLE, 0, PetStatus.PENDING, 1, PetStatus.ADOPTED, 2));
+        assertCodes(Map.of(AdoptionStatus.PENDING, 0, AdoptionStatus.APPROVED, 1, AdoptionStatus.REJECTED, 2));
+        assertCodes(Map.of(Role.USER, 0, Role.ADMIN, 1, Role.ADOPTER, 2, Role.SHELTER, 3));
+    }
+
+    @Test
+    void shouldRoundTripEveryConstant() {
+        assertRoundTrip(new PetTypeConverter(), PetType.values());
+        assertRoundTrip(new PetStatusConverter(), PetStatus.values());
+        assertRoundTrip(new AdoptionStatusConverter(), AdoptionStatus.values());
+        assertRoundTrip(new RoleConverter(), Role.values());
+    }
+
+    @Test
+    void shouldMapNullToNull() {
+        PetStatusConverter converter = new PetStatusConverter();
+
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void shouldRejectUnknownCode() {
+        RoleConverter converter = new RoleConverter();
+
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute((short) 4));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute((short) -1));
+    }
+
+    @Test
+    void shouldRejectDuplicateCodes() {
+        assertThrows(IllegalStateException.class, DuplicateConverter::new);
+    }
+
+    private static void assertCodes(Map<? extends CodedEnum, Integer> expected) {
+        expected.forEach((constant, code) -> assertEquals(code.shortValue(), constant.code(), constant.toString()));
+    }
+
+    @SafeVarargs
+    private static <E extends Enum<E> & CodedEnum> void assertRoundTrip(CodedEnumConverter<E> converter, E... values) {
+        for (E value : values) {
+            assertEquals(value, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(value)));
+        }
+    }
+
+    private enum Duplicated implements CodedEnum {
+        FIRST, SECOND;
+
+        @Override
+        public short code() {
+            return 1;
+        }
+    }
+
+    private static class DuplicateConverter extends CodedEnumConverter<Duplicated> {
+
+        DuplicateConverter() {
+            super(Duplicated.class);
+        }
+    }
+}
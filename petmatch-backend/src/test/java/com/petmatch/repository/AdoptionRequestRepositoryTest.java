@@ -0,0 +1,207 @@
+package com.petmatch.repository;
+
+import com.petmatch.dto.AdoptionResponseDTO;
+import com.petmatch.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AdoptionRequestRepositoryTest {
+
+    private static final int REQUESTS = 5;
+
+    @Autowired
+    private AdoptionRequestRepository adoptionRequestRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User firstApplicant;
+    private Pet pet;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(user("Shelter", "shelter@example.com"));
+        pet = entityManager.persist(Pet.builder()
+                .name("Lobby")
+                .type(PetType.DOG)
+                .status(PetStatus.AVAILABLE)
+                .owner(owner)
+                .build());
+
+        for (int i = 0; i < REQUESTS; i++) {
+            User applicant = entityManager.persist(user("Adopter " + i, "adopter" + i + "@example.com"));
+            if (i == 0) {
+                firstApplicant = applicant;
+            }
+            entityManager.persist(AdoptionRequest.builder()
+                    .pet(pet)
+                    .applicant(applicant)
+                    .status(AdoptionStatus.PENDING)
+                    .message("Please!")
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    @Test
+    void shouldListRequestsForOwnerInOneStatement() {
+        List<AdoptionResponseDTO> result = adoptionRequestRepository.findResponsesByPetOwnerId(owner.getId());
+
+        assertEquals(REQUESTS, result.size());
+        assertTrue(result.stream().allMatch(dto -> "Lobby".equals(dto.petName())));
+        assertTrue(result.stream().allMatch(dto -> dto.applicantName().startsWith("Adopter")));
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldListRequestsForPetInOneStatement() {
+        List<AdoptionResponseDTO> result = adoptionRequestRepository.findResponsesByPetId(pet.getId());
+
+        assertEquals(REQUESTS, result.size());
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldListRequestsForApplicantInOneStatement() {
+        List<AdoptionResponseDTO> result = adoptionRequestRepository.findResponsesByApplicantId(firstApplicant.getId());
+
+        assertEquals(1, result.size());
+        assertEquals("Adopter 0", result.get(0).applicantName());
+        assertEquals(pet.getId(), result.get(0).petId());
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldRejectOtherPendingRequestsInOneStatement() {
+        List<AdoptionResponseDTO> requests = adoptionRequestRepository.findResponsesByPetId(pet.getId());
+        UUID approvedId = requests.get(0).id();
+        UUID alreadyRejectedId = requests.get(1).id();
+        AdoptionRequest alreadyRejected = entityManager.find(AdoptionRequest.class, alreadyRejectedId);
+        alreadyRejected.setStatus(AdoptionStatus.REJECTED);
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+
+        int rejected = adoptionRequestRepository.rejectOtherPendingRequests(pet.getId(), approvedId);
+
+        assertEquals(REQUESTS - 2, rejected);
+        assertEquals(1, statistics().getPrepareStatementCount());
+
+        entityManager.clear();
+        assertEquals(AdoptionStatus.PENDING, entityManager.find(AdoptionRequest.class, approvedId).getStatus());
+        assertEquals(1L, entityManager.find(AdoptionRequest.class, alreadyRejectedId).getVersion());
+        assertTrue(adoptionRequestRepository.findResponsesByPetId(pet.getId()).stream()
+                .filter(dto -> !dto.id().equals(approvedId))
+                .allMatch(dto -> dto.status() == AdoptionStatus.REJECTED));
+    }
+
+    @Test
+    void shouldChangeFingerprintWhenRequestsOrTheirPetsChange() {
+        String initial = adoptionRequestRepository.fingerprintByPetOwnerId(owner.getId()).etag("shelter");
+        assertEquals(1, statistics().getPrepareStatementCount());
+        assertEquals(initial, adoptionRequestRepository.fingerprintByPetOwnerId(owner.getId()).etag("shelter"));
+
+        UUID approvedId = adoptionRequestRepository.findResponsesByPetId(pet.getId()).get(0).id();
+        adoptionRequestRepository.rejectOtherPendingRequests(pet.getId(), approvedId);
+        entityManager.clear();
+        String afterReject = adoptionRequestRepository.fingerprintByPetOwnerId(owner.getId()).etag("shelter");
+        assertNotEquals(initial, afterReject);
+
+        entityManager.find(Pet.class, pet.getId()).setName("Lobby II");
+        entityManager.flush();
+        entityManager.clear();
+        assertNotEquals(afterReject, adoptionRequestRepository.fingerprintByPetOwnerId(owner.getId()).etag("shelter"));
+    }
+
+    @Test
+    void shouldRejectASecondRequestForTheSamePairWithANamedUniqueViolation() {
+        AdoptionRequest first = entityManager.find(AdoptionRequest.class,
+                adoptionRequestRepository.findResponsesByPetId(pet.getId()).get(0).id());
+        statistics().clear();
+
+        DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class, () ->
+                adoptionRequestRepository.saveAndFlush(AdoptionRequest.builder()
+                        .pet(first.getPet())
+                        .applicant(first.getApplicant())
+                        .status(AdoptionStatus.PENDING)
+                        .build()));
+
+        ConstraintViolationException violation = assertInstanceOf(ConstraintViolationException.class, ex.getCause());
+        assertTrue(violation.getConstraintName().toLowerCase().contains(AdoptionRequest.APPLICANT_PET_CONSTRAINT));
+        // The insert is the duplicate check: no lookup runs before it.
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReadCountersAndDeleteARequestWithOneStatementEach() {
+        AdoptionResponseDTO target = adoptionRequestRepository.findResponsesByPetId(pet.getId()).get(0);
+        statistics().clear();
+
+        AdoptionRequestRepository.CountedRequest counted = adoptionRequestRepository.findCountedById(target.id()).orElseThrow();
+        int deleted = adoptionRequestRepository.removeById(target.id());
+
+        assertEquals(target.applicantId(), counted.applicantId());
+        assertEquals(pet.getId(), counted.petId());
+        assertEquals(owner.getId(), counted.ownerId());
+        assertEquals(AdoptionStatus.PENDING, counted.status());
+        assertNotNull(counted.petCreatedAt());
+        assertEquals(1, deleted);
+        assertEquals(2, statistics().getPrepareStatementCount());
+        assertEquals(0, adoptionRequestRepository.removeById(target.id()));
+        assertTrue(adoptionRequestRepository.findCountedById(target.id()).isEmpty());
+    }
+
+    @Test
+    void shouldCheckForAnExistingRequestWithOneStatement() {
+        assertTrue(adoptionRequestRepository.existsByApplicantIdAndPetId(firstApplicant.getId(), pet.getId()));
+        assertFalse(adoptionRequestRepository.existsByApplicantIdAndPetId(owner.getId(), pet.getId()));
+        assertEquals(2, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldFingerprintEmptyListings() {
+        ListFingerprint fingerprint = adoptionRequestRepository.fingerprintByApplicantId(UUID.randomUUID());
+
+        assertEquals(0L, fingerprint.count());
+        assertNotEquals(fingerprint.etag("a@example.com"), fingerprint.etag("b@example.com"));
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private User user(String name, String email) {
+        return User.builder()
+                .name(name)
+                .email(email)
+                .password("hashed")
+                .role(Role.ADOPTER)
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.petmatch.repository;
+
+import com.petmatch.dto.ShelterStatsDTO;
+import com.petmatch.model.AdoptionRequest;
+import com.petmatch.model.AdoptionStatus;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.Role;
+import com.petmatch.model.ShelterStatCounter;
+import com.petmatch.service.ShelterStatsService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application's Flyway and Hibernate validation against a database in
+ * the state ddl-auto=update left it before migrations took over: V1's schema, no
+ * schema history, and data the later constraints have to cope with.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ShelterStatsService.class)
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "PostgreSQL refuses to run as root")
+class LegacySchemaMigrationTest {
+
+    private static final UUID SHELTER = UUID.randomUUID();
+    private static final UUID ADOPTER = UUID.randomUUID();
+    private static final UUID OTHER_ADOPTER = UUID.randomUUID();
+    private static final UUID PET = UUID.randomUUID();
+    private static final UUID UNDATED_PET = UUID.randomUUID();
+    private static final UUID APPROVED_REQUEST = UUID.randomUUID();
+    private static final UUID NEWER_PENDING_REQUEST = UUID.randomUUID();
+
+    @TestConfiguration
+    static class LegacyDatabaseConfig {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            createLegacyDatabase(dataSource);
+            return dataSource;
+        }
+    }
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private AdoptionRequestRepository adoptionRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShelterStatCounterRepository counterRepository;
+
+    @Autowired
+    private ShelterStatsService shelterStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldBaselineLegacyDatabaseAndApplyLaterMigrations() {
+        List<String> applied = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        assertEquals("1", applied.get(0));
+        assertTrue(applied.size() > 1);
+    }
+
+    @Test
+    void shouldConvertEnumNamesToCodes() {
+        assertEquals(Role.SHELTER, userRepository.findById(SHELTER).orElseThrow().getRole());
+        assertEquals(Role.ADOPTER, userRepository.findById(ADOPTER).orElseThrow().getRole());
+        assertEquals(PetStatus.AVAILABLE, petRepository.findById(PET).orElseThrow().getStatus());
+        assertEquals(PetStatus.PENDING, petRepository.findById(UNDATED_PET).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldDateUndatedPets() {
+        Pet pet = petRepository.findById(UNDATED_PET).orElseThrow();
+
+        assertNotNull(pet.getCreatedAt());
+        assertEquals(0L, pet.getVersion());
+    }
+
+    @Test
+    void shouldKeepOneRequestPerAdopterAndPet() {
+        List<AdoptionRequest> requests = adoptionRequestRepository.findAll();
+
+        assertEquals(2, requests.size());
+        AdoptionRequest approved = adoptionRequestRepository.findById(APPROVED_REQUEST).orElseThrow();
+        assertEquals(AdoptionStatus.APPROVED, approved.getStatus());
+        AdoptionRequest newest = adoptionRequestRepository.findById(NEWER_PENDING_REQUEST).orElseThrow();
+        assertEquals(AdoptionStatus.PENDING, newest.getStatus());
+    }
+
+    @Test
+    void shouldArchiveTheDuplicateRequestsItRemoved() {
+        Map<String, Long> archived = jdbcTemplate.queryForList(
+                        "SELECT kept_request_id, status FROM adoption_request_duplicates").stream()
+                .collect(Collectors.groupingBy(row -> row.get("kept_request_id") + " " + row.get("status"),
+                        Collectors.counting()));
+
+        assertEquals(Map.of(
+                APPROVED_REQUEST + " REJECTED", 1L,
+                APPROVED_REQUEST + " PENDING", 1L,
+                NEWER_PENDING_REQUEST + " PENDING", 1L), archived);
+    }
+
+    @Test
+    void shouldCountExistingDataIntoDashboardCounters() {
+        Map<String, Long> counters = counterRepository.findByOwnerId(SHELTER).stream()
+                .collect(Collectors.toMap(ShelterStatCounter::getName, ShelterStatCounter::getAmount));
+
+        assertEquals(Map.of(
+                "pets.status.AVAILABLE", 1L,
+                "pets.status.PENDING", 1L,
+                "pets.type.DOG", 1L,
+                "pets.type.CAT", 1L,
+                "requests.status.APPROVED", 1L,
+                // The approved legacy request has no update time, so it is not counted as
+                // an adoption: there is no time to adoption to average over.
+                "requests.status.PENDING", 1L), counters);
+    }
+
+    @Test
+    void shouldKeepCountersInStepWithARebuildWhenALegacyApprovedRequestIsRemoved() {
+        shelterStatsService.requestRemoved(adoptionRequestRepository.findCountedById(APPROVED_REQUEST).orElseThrow());
+        adoptionRequestRepository.removeById(APPROVED_REQUEST);
+        ShelterStatsDTO counted = shelterStatsService.getStats(SHELTER);
+
+        assertEquals(0L, counted.getAdoptions());
+        assertEquals(shelterStatsService.rebuild(SHELTER), counted);
+    }
+
+    private static void createLegacyDatabase(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .target("1")
+                .load()
+                .migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE flyway_schema_history");
+
+        insertUser(jdbc, SHELTER, "shelter@example.com", "SHELTER");
+        insertUser(jdbc, ADOPTER, "adopter@example.com", "ADOPTER");
+        insertUser(jdbc, OTHER_ADOPTER, "other@example.com", "ADOPTER");
+        jdbc.update("INSERT INTO pets (id, name, type, status, created_at, user_id) VALUES (?, 'Lobby', 0, 'AVAILABLE', ?, ?)",
+                PET, Timestamp.valueOf(LocalDateTime.now().minusDays(3)), SHELTER);
+        jdbc.update("INSERT INTO pets (id, name, type, status, user_id) VALUES (?, 'Misha', 1, 'PENDING', ?)",
+                UNDATED_PET, SHELTER);
+
+        // The same adopter applied three times; the approved request is the one to keep.
+        insertRequest(jdbc, UUID.randomUUID(), PET, ADOPTER, "REJECTED", 1);
+        insertRequest(jdbc, APPROVED_REQUEST, PET, ADOPTER, "APPROVED", 2);
+        insertRequest(jdbc, UUID.randomUUID(), PET, ADOPTER, "PENDING", 3);
+        // Twice with the same outcome: the newest one is kept.
+        insertRequest(jdbc, UUID.randomUUID(), UNDATED_PET, OTHER_ADOPTER, "PENDING", 2);
+        insertRequest(jdbc, NEWER_PENDING_REQUEST, UNDATED_PET, OTHER_ADOPTER, "PENDING", 1);
+    }
+
+    private static void insertUser(JdbcTemplate jdbc, UUID id, String email, String role) {
+        jdbc.update("INSERT INTO users (id, name, email, password, role) VALUES (?, ?, ?, 'hash', ?)",
+                id, email, email, role);
+    }
+
+    private static void insertRequest(JdbcTemplate jdbc, UUID id, UUID petId, UUID applicantId, String status, int daysAgo) {
+        jdbc.update("INSERT INTO adoption_requests (id, pet_id, applicant_id, status, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, petId, applicantId, status, Timestamp.valueOf(LocalDateTime.now().minusDays(daysAgo)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.petmatch.repository;
+
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldPruneOnlyEventsCreatedBeforeTheCutoff() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent old = entityManager.persist(event(OutboxEventType.PET_CHANGED));
+        entityManager.persist(event(OutboxEventType.ADOPTION_REQUESTED));
+        OutboxEvent recent = entityManager.persist(event(OutboxEventType.ADOPTION_STATUS_CHANGED));
+        entityManager.flush();
+        entityManager.getEntityManager().createQuery("UPDATE OutboxEvent e SET e.createdAt = :at WHERE e.id <> :id")
+                .setParameter("at", now.minusHours(2))
+                .setParameter("id", recent.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        assertEquals(2, outboxEventRepository.deleteCreatedBefore(now.minusHours(1)));
+
+        assertEquals(List.of(recent.getId()), outboxEventRepository.findAll().stream().map(OutboxEvent::getId).toList());
+        assertFalse(outboxEventRepository.existsById(old.getId()));
+    }
+
+    private OutboxEvent event(OutboxEventType type) {
+        return OutboxEvent.builder()
+                .type(type)
+                .aggregateId(UUID.randomUUID())
+                .build();
+    }
+}
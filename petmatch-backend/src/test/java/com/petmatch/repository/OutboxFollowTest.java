@@ -0,0 +1,124 @@
+package com.petmatch.repository;
+
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks on PostgreSQL that a node following the outbox never moves past an event
+ * whose transaction has yet to commit, whatever order the ids were handed out in.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "PostgreSQL refuses to run as root")
+class OutboxFollowTest {
+
+    private static final List<String> TYPES = List.of(OutboxEventType.PET_CHANGED.name());
+
+    @TestConfiguration
+    static class EmbeddedPostgresConfig {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+    }
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+    }
+
+    @Test
+    void shouldNotReadPastATransactionThatIsStillOpen() throws SQLException {
+        long start = outboxEventRepository.findOldestRunningTransaction();
+        insert(3);
+
+        try (Connection open = dataSource.getConnection()) {
+            open.setAutoCommit(false);
+            insert(open, 1);
+            insert(2);
+
+            // Event 2 committed, but after event 1's transaction began: it has to wait.
+            assertEquals(List.of(3L), ids(outboxEventRepository.findCommittedAfter(start, 0, TYPES, 10)));
+
+            open.commit();
+        }
+
+        List<OutboxEvent> all = outboxEventRepository.findCommittedAfter(start, 0, TYPES, 10);
+        assertEquals(List.of(3L, 1L, 2L), ids(all));
+        OutboxEvent read = all.get(0);
+        assertEquals(List.of(1L, 2L), ids(outboxEventRepository.findCommittedAfter(read.getTxId(), read.getId(), TYPES, 10)));
+    }
+
+    @Test
+    void shouldReadEventsOfTheGivenTypesOnly() {
+        long start = outboxEventRepository.findOldestRunningTransaction();
+        insert(1);
+        jdbcTemplate.update("INSERT INTO outbox_events (id, type, aggregate_id, created_at) "
+                + "VALUES (2, 'ADOPTION_REQUESTED', ?, localtimestamp)", UUID.randomUUID());
+
+        assertEquals(List.of(1L), ids(outboxEventRepository.findCommittedAfter(start, 0, TYPES, 10)));
+    }
+
+    private void insert(long id) {
+        try (Connection connection = dataSource.getConnection()) {
+            insert(connection, id);
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void insert(Connection connection, long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO outbox_events (id, type, aggregate_id, created_at) "
+                        + "VALUES (?, 'PET_CHANGED', ?, localtimestamp)")) {
+            statement.setLong(1, id);
+            statement.setObject(2, UUID.randomUUID());
+            statement.executeUpdate();
+        }
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getId).toList();
+    }
+}
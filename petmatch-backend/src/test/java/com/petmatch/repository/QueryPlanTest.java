@@ -0,0 +1,333 @@
+package com.petmatch.repository;
+
+import com.petmatch.dto.PetSearchCriteria;
+import com.petmatch.model.*;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the repository queries against PostgreSQL with the Flyway schema and fails
+ * when the plan of any statement they issue reads a table sequentially. Plans are
+ * the generic ones a cached prepared statement would use, with sequential scans
+ * disabled so that any usable index wins however small the table. Exporting the
+ * whole catalog reads every pet by design and is not checked.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisabledIfSystemProperty(named = "user.name", matches = "root", disabledReason = "PostgreSQL refuses to run as root")
+class QueryPlanTest {
+
+    private static final int ADOPTED_PETS = 2000;
+    private static final int ADOPTERS = 500;
+
+    @TestConfiguration
+    static class EmbeddedPostgresConfig {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+
+        @Bean
+        RecordingInspector recordingInspector() {
+            return new RecordingInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(RecordingInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    static class RecordingInspector implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> drain() {
+            List<String> drained = List.copyOf(statements);
+            statements.clear();
+            return drained;
+        }
+    }
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private AdoptionRequestRepository adoptionRequestRepository;
+
+    @Autowired
+    private ShelterStatCounterRepository counterRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordingInspector inspector;
+
+    private User owner;
+    private User adopter;
+    private Pet pet;
+    private Pet unrequestedPet;
+    private AdoptionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(user("Shelter", "shelter@example.com", Role.SHELTER));
+        User otherShelter = entityManager.persist(user("Other shelter", "other@example.com", Role.SHELTER));
+        adopter = entityManager.persist(user("Adopter", "adopter@example.com", Role.ADOPTER));
+        pet = entityManager.persist(pet("Lobby", PetType.DOG));
+        unrequestedPet = entityManager.persist(pet("Misha", PetType.CAT));
+        request = entityManager.persist(AdoptionRequest.builder()
+                .pet(pet)
+                .applicant(adopter)
+                .status(AdoptionStatus.PENDING)
+                .message("Please!")
+                .build());
+        entityManager.persist(OutboxEvent.builder()
+                .type(OutboxEventType.PET_CHANGED)
+                .aggregateId(pet.getId())
+                .build());
+        entityManager.persist(new ShelterStatCounter(owner.getId(), "pets.available", 2));
+        entityManager.flush();
+
+        seedHistory(otherShelter.getId());
+
+        entityManager.clear();
+        inspector.drain();
+    }
+
+    @Test
+    void petLookupsUseIndexes() {
+        assertNoSequentialScan(() -> petRepository.findById(pet.getId()));
+        assertNoSequentialScan(() -> petRepository.findAllById(List.of(pet.getId(), unrequestedPet.getId())));
+        assertNoSequentialScan(() -> petRepository.findVersionById(pet.getId()));
+        assertUsesIndex("idx_pets_user_id", () -> petRepository.findByOwnerId(owner.getId()));
+        assertNoSequentialScan(() -> petRepository.findCountedById(pet.getId()));
+        assertNoSequentialScan(() -> petRepository.removeById(unrequestedPet.getId()));
+    }
+
+    @Test
+    void catalogPagesUseIndexes() {
+        PetCursor after = PetCursor.of(pet);
+
+        assertNoSequentialScan(() -> catalog(criteria(null, null), null));
+        assertNoSequentialScan(() -> catalog(criteria(null, null), after));
+        assertNoSequentialScan(() -> catalog(criteria(PetType.DOG, null), after));
+        assertNoSequentialScan(() -> catalog(criteria(null, PetStatus.AVAILABLE), after));
+        assertNoSequentialScan(() -> catalog(criteria(PetType.CAT, PetStatus.AVAILABLE), after));
+        assertNoSequentialScan(() -> catalog(criteria(PetType.CAT, PetStatus.ADOPTED), after));
+        assertNoSequentialScan(() -> petRepository.findBy(
+                PetSpecifications.matching(criteria(null, null)).and(PetSpecifications.located()),
+                query -> query.sortBy(PetSpecifications.CATALOG_ORDER).limit(20).all()));
+    }
+
+    @Test
+    void availablePetsAreReadThroughPartialIndexes() {
+        assertUsesIndex("idx_pets_available_created_at_id",
+                () -> catalog(criteria(null, PetStatus.AVAILABLE), null));
+        assertUsesIndex("idx_pets_available_type_created_at_id",
+                () -> catalog(criteria(PetType.DOG, PetStatus.AVAILABLE), null));
+    }
+
+    @Test
+    void adoptionRequestQueriesUseIndexes() {
+        assertNoSequentialScan(() -> adoptionRequestRepository.findById(request.getId()));
+        assertNoSequentialScan(() -> adoptionRequestRepository.findResponsesByApplicantId(adopter.getId()));
+        assertNoSequentialScan(() -> adoptionRequestRepository.findResponsesByPetOwnerId(owner.getId()));
+        assertNoSequentialScan(() -> adoptionRequestRepository.findResponsesByPetId(pet.getId()));
+        assertUsesIndex("uk_adoption_requests_applicant_pet",
+                () -> adoptionRequestRepository.findResponsesByApplicantId(adopter.getId()));
+        assertUsesIndex("idx_adoption_requests_pet_id_status",
+                () -> adoptionRequestRepository.findResponsesByPetOwnerId(owner.getId()));
+        assertUsesIndex("idx_adoption_requests_pet_id_status",
+                () -> adoptionRequestRepository.findResponsesByPetId(pet.getId()));
+        assertNoSequentialScan(() -> adoptionRequestRepository.fingerprintByApplicantId(adopter.getId()));
+        assertNoSequentialScan(() -> adoptionRequestRepository.fingerprintByPetOwnerId(owner.getId()));
+        assertNoSequentialScan(() -> adoptionRequestRepository.findWithPetByApplicantId(adopter.getId()));
+        assertNoSequentialScan(() -> adoptionRequestRepository.findCountedById(request.getId()));
+        assertNoSequentialScan(() -> adoptionRequestRepository.removeById(request.getId()));
+    }
+
+    @Test
+    void pendingRequestsAreRejectedThroughPetAndStatusIndex() {
+        assertUsesIndex("idx_adoption_requests_pet_id_status",
+                () -> adoptionRequestRepository.rejectOtherPendingRequests(pet.getId(), UUID.randomUUID()));
+        assertUsesIndex("idx_adoption_requests_pet_id_status",
+                () -> counterRepository.countRequests(owner.getId()));
+    }
+
+    @Test
+    void shelterStatQueriesUseIndexes() {
+        assertNoSequentialScan(() -> counterRepository.count());
+        assertNoSequentialScan(() -> counterRepository.findByOwnerId(owner.getId()));
+        assertNoSequentialScan(() -> counterRepository.add(owner.getId(), "pets.available", 1));
+        assertNoSequentialScan(() -> counterRepository.lockByOwnerId(owner.getId()));
+        assertNoSequentialScan(() -> counterRepository.deleteByOwnerId(owner.getId()));
+        assertNoSequentialScan(() -> counterRepository.countPets(owner.getId()));
+        assertNoSequentialScan(() -> counterRepository.countRequests(owner.getId()));
+        assertNoSequentialScan(() -> counterRepository.sumAdoptions(owner.getId()));
+    }
+
+    @Test
+    void outboxIsFollowedAndPrunedThroughIndexes() {
+        assertUsesIndex("idx_outbox_events_tx_id_id", () -> outboxEventRepository.findCommittedAfter(
+                0L, 0L, List.of(OutboxEventType.PET_CHANGED.name()), 100));
+        assertUsesIndex("idx_outbox_events_created_at", () -> outboxEventRepository.deleteCreatedBefore(
+                LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void userLookupsUseIndexes() {
+        assertNoSequentialScan(() -> userRepository.findById(adopter.getId()));
+        assertNoSequentialScan(() -> userRepository.findByEmail("adopter@example.com"));
+    }
+
+    private void assertNoSequentialScan(Runnable queries) {
+        plansOf(queries).forEach((sql, plan) ->
+                assertTrue(plan.stream().noneMatch(line -> line.contains("Seq Scan")),
+                        () -> "Sequential scan in plan of\n" + sql + "\n" + String.join("\n", plan)));
+    }
+
+    private void assertUsesIndex(String index, Runnable queries) {
+        plansOf(queries).forEach((sql, plan) ->
+                assertTrue(plan.stream().anyMatch(line -> line.contains(" " + index + " ")),
+                        () -> index + " not used by\n" + sql + "\n" + String.join("\n", plan)));
+    }
+
+    private Map<String, List<String>> plansOf(Runnable queries) {
+        queries.run();
+        entityManager.flush();
+        List<String> statements = inspector.drain();
+        assertFalse(statements.isEmpty(), "No statement was executed");
+
+        Map<String, List<String>> plans = new LinkedHashMap<>();
+        statements.forEach(sql -> plans.put(sql, explain(sql)));
+        return plans;
+    }
+
+    /**
+     * The generic plan of a statement as Hibernate issued it, with its {@code ?}
+     * placeholders turned into numbered parameters of a prepared statement.
+     */
+    private List<String> explain(String sql) {
+        StringBuilder prepared = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameters);
+            } else {
+                prepared.append(c);
+            }
+        }
+
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        jdbcTemplate.execute("PREPARE plan_check AS " + prepared);
+        try {
+            String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+            return jdbcTemplate.queryForList("EXPLAIN EXECUTE plan_check" + arguments, String.class);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE plan_check");
+        }
+    }
+
+    /**
+     * Adopted pets that far outnumber available ones, all at another shelter, each
+     * with a request from one of many other adopters, so that index choices are
+     * made on realistic statistics rather than on single-row tables.
+     */
+    private void seedHistory(UUID shelterId) {
+        jdbcTemplate.update("INSERT INTO pets (id, name, type, status, created_at, version, user_id) " +
+                "SELECT gen_random_uuid(), 'Pet ' || i, i % 5, ?, " +
+                "localtimestamp - i * interval '1 minute', 0, ? FROM generate_series(1, ?) i",
+                PetStatus.ADOPTED.code(), shelterId, ADOPTED_PETS);
+        jdbcTemplate.update("INSERT INTO users (id, name, email, password, role, created_at) " +
+                "SELECT gen_random_uuid(), 'Adopter ' || i, 'adopter' || i || '@example.org', 'secret', " +
+                "?, localtimestamp FROM generate_series(1, ?) i", Role.ADOPTER.code(), ADOPTERS);
+        jdbcTemplate.update("INSERT INTO adoption_requests (id, pet_id, applicant_id, status, created_at, version) " +
+                "SELECT gen_random_uuid(), p.id, a.id, ?, p.created_at, 0 " +
+                "FROM (SELECT id, created_at, row_number() OVER () % ? AS n FROM pets WHERE user_id = ?) p " +
+                "JOIN (SELECT id, row_number() OVER () - 1 AS n FROM users WHERE email LIKE '%@example.org') a " +
+                "ON a.n = p.n", AdoptionStatus.REJECTED.code(), ADOPTERS, shelterId);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private List<Pet> catalog(PetSearchCriteria criteria, PetCursor after) {
+        return petRepository.findBy(
+                PetSpecifications.matching(criteria).and(PetSpecifications.after(after)),
+                query -> query.sortBy(PetSpecifications.CATALOG_ORDER).limit(21).all());
+    }
+
+    private static PetSearchCriteria criteria(PetType type, PetStatus status) {
+        PetSearchCriteria criteria = new PetSearchCriteria();
+        criteria.setType(type);
+        criteria.setStatus(status);
+        return criteria;
+    }
+
+    private Pet pet(String name, PetType type) {
+        return Pet.builder()
+                .name(name)
+                .type(type)
+                .status(PetStatus.AVAILABLE)
+                .owner(owner)
+                .build();
+    }
+
+    private static User user(String name, String email, Role role) {
+        return User.builder()
+                .name(name)
+                .email(email)
+                .password("secret")
+                .role(role)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.petmatch.repository;
+
+import com.petmatch.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ShelterStatCounterRepositoryTest {
+
+    @Autowired
+    private ShelterStatCounterRepository counterRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(User.builder()
+                .name("Shelter")
+                .email("shelter@example.com")
+                .password("secret")
+                .role(Role.SHELTER)
+                .build());
+    }
+
+    @Test
+    void shouldCreateCounterOnFirstAddAndAccumulateAfterwards() {
+        counterRepository.add(owner.getId(), "pets.type.DOG", 2);
+        counterRepository.add(owner.getId(), "pets.type.DOG", 3);
+        counterRepository.add(owner.getId(), "pets.type.DOG", -1);
+        counterRepository.add(owner.getId(), "pets.type.CAT", 1);
+        entityManager.clear();
+
+        Map<String, Long> counters = counterRepository.findByOwnerId(owner.getId()).stream()
+                .collect(Collectors.toMap(ShelterStatCounter::getName, ShelterStatCounter::getAmount));
+        assertEquals(Map.of("pets.type.DOG", 4L, "pets.type.CAT", 1L), counters);
+    }
+
+    @Test
+    void shouldAggregateSourceTablesForRebuild() {
+        Pet lobby = entityManager.persist(pet("Lobby", PetType.DOG, PetStatus.ADOPTED));
+        Pet rex = entityManager.persist(pet("Rex", PetType.DOG, PetStatus.AVAILABLE));
+        entityManager.persist(pet("Mia", PetType.CAT, PetStatus.AVAILABLE));
+        User adopter = entityManager.persist(User.builder()
+                .name("Gaby").email("gaby@example.com").password("secret").role(Role.ADOPTER).build());
+        AdoptionRequest approved = entityManager.persist(request(lobby, adopter, AdoptionStatus.APPROVED));
+        entityManager.persist(request(rex, adopter, AdoptionStatus.PENDING));
+        AdoptionRequest undated = entityManager.persist(request(rex, entityManager.persist(User.builder()
+                .name("Ana").email("ana@example.com").password("secret").role(Role.ADOPTER).build()),
+                AdoptionStatus.APPROVED));
+        entityManager.flush();
+
+        // Approved before requests were dated: not an adoption with a known duration.
+        entityManager.getEntityManager().createNativeQuery("UPDATE adoption_requests SET updated_at = NULL WHERE id = ?")
+                .setParameter(1, undated.getId())
+                .executeUpdate();
+
+        // Listed two days before the approval.
+        entityManager.getEntityManager().createQuery("UPDATE Pet p SET p.createdAt = :at WHERE p.id = :id")
+                .setParameter("at", approved.getUpdatedAt().minusDays(2))
+                .setParameter("id", lobby.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        assertEquals(3, counterRepository.countPets(owner.getId()).size());
+        assertTrue(counterRepository.countPets(owner.getId())
+                .contains(new ShelterStatCounterRepository.PetCount(PetStatus.AVAILABLE, PetType.DOG, 1L)));
+        assertTrue(counterRepository.countRequests(owner.getId())
+                .contains(new ShelterStatCounterRepository.RequestCount(AdoptionStatus.APPROVED, 2L)));
+
+        ShelterStatCounterRepository.AdoptionTotals adoptions = counterRepository.sumAdoptions(owner.getId());
+        assertEquals(1L, adoptions.adoptions());
+        assertEquals(2 * 24 * 3600L, adoptions.seconds().longValue());
+    }
+
+    private Pet pet(String name, PetType type, PetStatus status) {
+        return Pet.builder().name(name).type(type).status(status).owner(owner).build();
+    }
+
+    private AdoptionRequest request(Pet pet, User applicant, AdoptionStatus status) {
+        return AdoptionRequest.builder().pet(pet).applicant(applicant).status(status).build();
+    }
+}
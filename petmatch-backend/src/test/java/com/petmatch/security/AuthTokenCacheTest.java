@@ -0,0 +1,107 @@
+package com.petmatch.security;
+
+import com.petmatch.model.Role;
+import com.petmatch.model.User;
+import com.petmatch.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthTokenCacheTest {
+
+    private static final String SECRET = "test-secret-key-with-at-least-256-bits!!";
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    private JwtUtil jwtUtil;
+    private AuthTokenCache authTokenCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil(SECRET));
+        authTokenCache = new AuthTokenCache(jwtUtil, userDetailsService, 100);
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .name("Gabriela")
+                .email("gaby@example.com")
+                .role(Role.ADMIN)
+                .build();
+    }
+
+    @Test
+    void shouldBuildPrincipalFromClaimsWithoutLoadingTheUser() {
+        String token = jwtUtil.generateToken(user);
+
+        AuthenticatedUser principal = authTokenCache.authenticate(token);
+
+        assertEquals(new AuthenticatedUser(user.getId(), "gaby@example.com", "Gabriela", Role.ADMIN), principal);
+        assertEquals("gaby@example.com", principal.getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ADMIN")), principal.getAuthorities());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void shouldParseRepeatedTokenOnlyOnce() {
+        String token = jwtUtil.generateToken(user);
+
+        AuthenticatedUser first = authTokenCache.authenticate(token);
+        AuthenticatedUser second = authTokenCache.authenticate(token);
+
+        assertSame(first, second);
+        verify(jwtUtil, times(1)).parseClaims(token);
+    }
+
+    @Test
+    void shouldLoadUserOnceForTokenIssuedWithoutClaims() {
+        String token = legacyToken("gaby@example.com");
+        when(userDetailsService.loadUserByUsername("gaby@example.com")).thenReturn(AuthenticatedUser.of(user));
+
+        assertEquals(AuthenticatedUser.of(user), authTokenCache.authenticate(token));
+        assertEquals(AuthenticatedUser.of(user), authTokenCache.authenticate(token));
+        verify(userDetailsService, times(1)).loadUserByUsername("gaby@example.com");
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        String token = jwtUtil.generateToken(user) + "x";
+
+        assertNull(authTokenCache.authenticate(token));
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void shouldRejectTokenWithoutClaimsOfDeletedUser() {
+        String token = legacyToken("ghost@example.com");
+        when(userDetailsService.loadUserByUsername("ghost@example.com"))
+                .thenThrow(new UsernameNotFoundException("User not found"));
+
+        assertNull(authTokenCache.authenticate(token));
+    }
+
+    private static String legacyToken(String email) {
+        return Jwts.builder()
+                .setSubject(email)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(new SecretKeySpec(SECRET.getBytes(), SignatureAlgorithm.HS256.getJcaName()))
+                .compact();
+    }
+}
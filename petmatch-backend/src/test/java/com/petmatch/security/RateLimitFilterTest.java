@@ -0,0 +1,137 @@
+package com.petmatch.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(new RateLimitProperties(true, 1000, List.of(
+                new RateLimitProperties.Rule("login", "POST", "/api/auth/login",
+                        RateLimitProperties.Key.IP, 2, Duration.ofMinutes(1)),
+                new RateLimitProperties.Rule("adoption-request", "POST", "/api/adoptions/**",
+                        RateLimitProperties.Key.USER, 1, Duration.ofMinutes(1)))),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRejectRequestsOverTheLimitWithRetryAfter() throws Exception {
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = send("POST", "/api/auth/login", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Too many requests"));
+        assertEquals(1.0, meterRegistry.get("petmatch.ratelimit.rejected").tag("rule", "login").counter().count());
+    }
+
+    @Test
+    void shouldKeepSeparateBucketsPerIpAndIgnoreOtherRoutes() throws Exception {
+        send("POST", "/api/auth/login", "10.0.0.1");
+        send("POST", "/api/auth/login", "10.0.0.1");
+
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.2").getStatus());
+        assertEquals(200, send("GET", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, send("POST", "/api/pets", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void shouldKeyUserRulesByAuthenticatedSubjectAcrossAddresses() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("gaby@example.com", null, List.of()));
+
+        assertEquals(200, send("POST", "/api/adoptions/", "10.0.0.1").getStatus());
+        assertEquals(429, send("POST", "/api/adoptions/", "10.0.0.2").getStatus());
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("ana@example.com", null, List.of()));
+        assertEquals(200, send("POST", "/api/adoptions/", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void shouldPassEverythingWhenDisabled() throws Exception {
+        filter = new RateLimitFilter(new RateLimitProperties(false, 1000, List.of(
+                new RateLimitProperties.Rule("login", "POST", "/api/auth/login",
+                        RateLimitProperties.Key.IP, 1, Duration.ofMinutes(1)))),
+                meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        }
+    }
+
+    @Test
+    void shouldRefillOneTokenPerIntervalAndAllowAFullBurstAfterIdling() {
+        TokenBuckets buckets = new TokenBuckets(3, Duration.ofSeconds(3), 100);
+        long start = 1_000;
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        assertEquals(0, buckets.tryAcquire("a", start));
+        assertEquals(0, buckets.tryAcquire("a", start));
+        assertEquals(0, buckets.tryAcquire("a", start));
+        assertEquals(second, buckets.tryAcquire("a", start));
+
+        assertEquals(0, buckets.tryAcquire("a", start + second));
+        assertTrue(buckets.tryAcquire("a", start + second) > 0);
+
+        long later = start + 10 * second;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("a", later));
+        }
+        assertTrue(buckets.tryAcquire("a", later) > 0);
+    }
+
+    @Test
+    void shouldEvictOnlyFullBucketsAndShareOneBucketWhenTrackingIsFull() {
+        TokenBuckets buckets = new TokenBuckets(2, Duration.ofSeconds(2), 2);
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        buckets.tryAcquire("a", 0);
+        buckets.tryAcquire("b", 0);
+        buckets.tryAcquire("b", 0);
+        // "c" and "d" are not tracked and draw from the same overflow bucket.
+        assertEquals(0, buckets.tryAcquire("c", 0));
+        assertEquals(0, buckets.tryAcquire("d", 0));
+        assertTrue(buckets.tryAcquire("c", 0) > 0);
+        assertTrue(buckets.tryAcquire("e", 0) > 0);
+        assertEquals(2, buckets.size());
+
+        // After one second "a" is full again while "b" still owes a token.
+        assertEquals(1, buckets.evictFull(second));
+        assertTrue(buckets.tryAcquire("b", second) == 0 && buckets.tryAcquire("b", second) > 0);
+        assertEquals(1, buckets.size());
+    }
+
+    private MockHttpServletResponse send(String method, String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
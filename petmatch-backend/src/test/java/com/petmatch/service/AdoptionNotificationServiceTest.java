@@ -0,0 +1,148 @@
+package com.petmatch.service;
+
+import com.petmatch.dto.AdoptionResponseDTO;
+import com.petmatch.model.AdoptionStatus;
+import com.petmatch.model.User;
+import com.petmatch.security.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdoptionNotificationServiceTest {
+
+    // Holds drain tasks until the test runs them, standing in for the task executor.
+    private final Queue<Runnable> pendingDrains = new ArrayDeque<>();
+    private final TaskExecutor executor = pendingDrains::add;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdoptionNotificationService notifications;
+    private User gaby;
+    private User ana;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        notifications = new AdoptionNotificationService(executor, meterRegistry,
+                Duration.ofMinutes(30), 2, 2);
+        gaby = User.builder().id(UUID.randomUUID()).email("gaby@example.com").build();
+        ana = User.builder().id(UUID.randomUUID()).email("ana@example.com").build();
+    }
+
+    @Test
+    void shouldFanOutStatusChangesOnlyToTheApplicantsStreams() {
+        subscribeAs(gaby);
+        subscribeAs(gaby);
+        subscribeAs(ana);
+        runPendingDrains();
+
+        notifications.statusChanged(approvedRequest());
+
+        assertEquals(3, notifications.openStreams());
+        assertEquals(2, pendingDrains.size());
+    }
+
+    @Test
+    void shouldCloseOldestStreamBeyondPerUserLimit() {
+        subscribeAs(gaby);
+        subscribeAs(gaby);
+        subscribeAs(gaby);
+
+        assertEquals(2, notifications.openStreams());
+        assertEquals(2.0, meterRegistry.get("petmatch.notifications.streams").gauge().value());
+    }
+
+    @Test
+    void shouldDisconnectSlowConsumerWhenItsQueueOverflows() {
+        subscribeAs(gaby);
+
+        // Nothing is drained, so the third event overflows the queue of two.
+        notifications.statusChanged(approvedRequest());
+        notifications.statusChanged(approvedRequest());
+        assertEquals(1, notifications.openStreams());
+        notifications.statusChanged(approvedRequest());
+
+        assertEquals(0, notifications.openStreams());
+        assertEquals(1.0, meterRegistry.get("petmatch.notifications.dropped").counter().count());
+
+        notifications.statusChanged(approvedRequest());
+        assertEquals(1.0, meterRegistry.get("petmatch.notifications.dropped").counter().count());
+    }
+
+    @Test
+    void shouldSendHeartbeatsToEveryOpenStream() {
+        subscribeAs(gaby);
+        subscribeAs(ana);
+        runPendingDrains();
+
+        notifications.sendHeartbeats();
+
+        assertEquals(2, pendingDrains.size());
+        runPendingDrains();
+        assertEquals(2, notifications.openStreams());
+    }
+
+    @Test
+    void shouldSkipHeartbeatWhileEventsAreQueued() {
+        subscribeAs(gaby);
+        runPendingDrains();
+        notifications.statusChanged(approvedRequest());
+
+        // The pending drain already covers the stream, and the heartbeat must not take
+        // the second slot of its queue.
+        notifications.sendHeartbeats();
+        notifications.statusChanged(approvedRequest());
+
+        assertEquals(1, pendingDrains.size());
+        assertEquals(1, notifications.openStreams());
+    }
+
+    @Test
+    void shouldKeepStreamsOpenWhenDrainsAreRejected() {
+        TaskExecutor rejecting = task -> {
+            throw new TaskRejectedException("shutting down");
+        };
+        notifications = new AdoptionNotificationService(rejecting, meterRegistry, Duration.ofMinutes(30), 2, 2);
+        subscribeAs(gaby);
+        subscribeAs(ana);
+
+        notifications.sendHeartbeats();
+        notifications.sendHeartbeats();
+
+        assertEquals(2, notifications.openStreams());
+        assertEquals(0.0, meterRegistry.get("petmatch.notifications.dropped").counter().count());
+    }
+
+    private void subscribeAs(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(user), null, List.of()));
+        try {
+            assertNotNull(notifications.subscribe());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void runPendingDrains() {
+        Runnable drain;
+        while ((drain = pendingDrains.poll()) != null) {
+            drain.run();
+        }
+    }
+
+    private AdoptionResponseDTO approvedRequest() {
+        return new AdoptionResponseDTO(UUID.randomUUID(), UUID.randomUUID(), "Lobby", gaby.getId(),
+                null, null, AdoptionStatus.APPROVED, null);
+    }
+}
@@ -2,22 +2,31 @@ package com.petmatch.service;
 
 import com.petmatch.dto.AdoptionRequestDTO;
 import com.petmatch.dto.AdoptionResponseDTO;
+import com.petmatch.exception.AdoptionConflictException;
+import com.petmatch.exception.DuplicateAdoptionRequestException;
 import com.petmatch.model.*;
 import com.petmatch.repository.AdoptionRequestRepository;
 import com.petmatch.repository.PetRepository;
 import com.petmatch.repository.UserRepository;
+import com.petmatch.security.AuthenticatedUser;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +46,18 @@ class AdoptionRequestServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ShelterStatsService shelterStatsService;
+
+    @Spy
+    private RecentAdoptionRequests recentAdoptionRequests = new RecentAdoptionRequests(true, 100, Duration.ofMinutes(5));
+
     @InjectMocks
     private AdoptionRequestService adoptionRequestService;
 
@@ -67,6 +88,11 @@ class AdoptionRequestServiceTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     void shouldUpdateStatusSuccessfully() {
         when(adoptionRequestRepository.findById(request.getId())).thenReturn(Optional.of(request));
@@ -75,120 +101,266 @@ class AdoptionRequestServiceTest {
         AdoptionResponseDTO result = adoptionRequestService.updateStatus(request.getId(), AdoptionStatus.APPROVED);
 
         assertNotNull(result);
-        assertEquals(AdoptionStatus.APPROVED, result.getStatus());
+        assertEquals(AdoptionStatus.APPROVED, result.status());
         verify(adoptionRequestRepository, times(1)).findById(request.getId());
         verify(adoptionRequestRepository, times(1)).save(request);
+        verify(outboxService).publish(OutboxEventType.ADOPTION_STATUS_CHANGED, request.getId(), result);
     }
 
     @Test
     void shouldDeleteRequestSuccessfully() {
-        when(adoptionRequestRepository.existsById(request.getId())).thenReturn(true);
+        AdoptionRequestRepository.CountedRequest counted = counted(request);
+        when(adoptionRequestRepository.findCountedById(request.getId())).thenReturn(Optional.of(counted));
+        when(adoptionRequestRepository.removeById(request.getId())).thenReturn(1);
 
         adoptionRequestService.deleteRequest(request.getId());
 
-        verify(adoptionRequestRepository, times(1)).deleteById(request.getId());
+        verify(adoptionRequestRepository, never()).findById(any());
+        verify(shelterStatsService).requestRemoved(counted);
+        verify(recentAdoptionRequests).remove(user.getId(), pet.getId());
     }
 
 
     @Test
     void shouldThrowWhenDeletingNonExistentRequest() {
         UUID fakeId = UUID.randomUUID();
-        when(adoptionRequestRepository.existsById(fakeId)).thenReturn(false);
+        when(adoptionRequestRepository.findCountedById(fakeId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () ->
                 adoptionRequestService.deleteRequest(fakeId));
 
-        verify(adoptionRequestRepository, never()).deleteById(any());
+        verify(adoptionRequestRepository, never()).removeById(any());
+    }
+
+    @Test
+    void shouldReportNotFoundWhenRequestIsDeletedConcurrently() {
+        when(adoptionRequestRepository.findCountedById(request.getId())).thenReturn(Optional.of(counted(request)));
+        when(adoptionRequestRepository.removeById(request.getId())).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () ->
+                adoptionRequestService.deleteRequest(request.getId()));
+
+        verifyNoInteractions(shelterStatsService);
+        verify(recentAdoptionRequests, never()).remove(any(), any());
     }
 
     @Test
     void shouldReturnRequestsByPetId() {
-        when(adoptionRequestRepository.findByPetId(pet.getId())).thenReturn(List.of(request));
+        when(adoptionRequestRepository.findResponsesByPetId(pet.getId())).thenReturn(List.of(responseOf(request)));
 
         List<AdoptionResponseDTO> result = adoptionRequestService.getRequestsByPetId(pet.getId());
 
         assertEquals(1, result.size());
-        assertEquals("Lobby", result.get(0).getPetName());
-        verify(adoptionRequestRepository, times(1)).findByPetId(pet.getId());
+        assertEquals("Lobby", result.get(0).petName());
+        verify(adoptionRequestRepository, times(1)).findResponsesByPetId(pet.getId());
     }
 
-    private void mockAuthenticatedUser(String email) {
+    private AdoptionResponseDTO responseOf(AdoptionRequest request) {
+        return new AdoptionResponseDTO(
+                request.getId(),
+                request.getPet().getId(),
+                request.getPet().getName(),
+                request.getApplicant().getId(),
+                request.getApplicant().getName(),
+                request.getMessage(),
+                request.getStatus(),
+                request.getCreatedAt());
+    }
+
+    private static AdoptionRequestRepository.CountedRequest counted(AdoptionRequest request) {
+        return new AdoptionRequestRepository.CountedRequest(request.getApplicant().getId(), request.getPet().getId(),
+                request.getPet().getOwner().getId(), request.getStatus(), request.getUpdatedAt(),
+                request.getPet().getCreatedAt());
+    }
+
+    private void mockAuthenticatedUser(User principal) {
         Authentication authentication = mock(Authentication.class);
         SecurityContext securityContext = mock(SecurityContext.class);
 
-        when(authentication.getName()).thenReturn(email);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(principal));
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
     }
 
     @Test
     void shouldCreateAdoptionRequestSuccessfully() {
-        mockAuthenticatedUser("gaby@example.com");
+        mockAuthenticatedUser(user);
 
         AdoptionRequestDTO dto = new AdoptionRequestDTO();
         dto.setPetId(pet.getId());
         dto.setMessage("I would love to adopt him.");
 
-        when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(user.getId())).thenReturn(User.builder().id(user.getId()).build());
         when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
-        when(adoptionRequestRepository.existsByApplicantAndPet(user, pet)).thenReturn(false);
-        when(adoptionRequestRepository.save(any())).thenReturn(request);
+        when(adoptionRequestRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            AdoptionRequest saved = invocation.getArgument(0);
+            saved.setId(request.getId());
+            return saved;
+        });
 
         AdoptionResponseDTO result = adoptionRequestService.createAdoptionRequest(dto);
 
         assertNotNull(result);
-        assertEquals("Lobby", result.getPetName());
-        assertEquals("Gabriela", result.getApplicantName());
+        assertEquals("Lobby", result.petName());
+        assertEquals("Gabriela", result.applicantName());
+        verify(userRepository, never()).findByEmail(any());
+        verify(outboxService).publish(OutboxEventType.ADOPTION_REQUESTED, request.getId(), result);
+        assertTrue(recentAdoptionRequests.contains(user.getId(), pet.getId()));
+    }
+
+    @Test
+    void shouldTurnUniqueViolationIntoConflictAndRejectRepeatsWithoutAnotherInsert() {
+        mockAuthenticatedUser(user);
+
+        AdoptionRequestDTO dto = new AdoptionRequestDTO();
+        dto.setPetId(pet.getId());
+
+        when(userRepository.getReferenceById(user.getId())).thenReturn(user);
+        when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
+        when(adoptionRequestRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null,
+                        "PUBLIC." + AdoptionRequest.APPLICANT_PET_CONSTRAINT.toUpperCase() + "_INDEX_A")));
+
+        when(adoptionRequestRepository.existsByApplicantIdAndPetId(user.getId(), pet.getId())).thenReturn(true);
+
+        assertThrows(DuplicateAdoptionRequestException.class, () -> adoptionRequestService.createAdoptionRequest(dto));
+        assertThrows(DuplicateAdoptionRequestException.class, () -> adoptionRequestService.createAdoptionRequest(dto));
+
+        verify(petRepository, times(1)).findById(pet.getId());
+        verify(adoptionRequestRepository, times(1)).saveAndFlush(any());
+        verifyNoInteractions(outboxService, shelterStatsService);
+    }
+
+    @Test
+    void shouldLetARememberedPairThroughOnceItsRequestIsGone() {
+        mockAuthenticatedUser(user);
+        recentAdoptionRequests.addExisting(user.getId(), pet.getId());
+
+        AdoptionRequestDTO dto = new AdoptionRequestDTO();
+        dto.setPetId(pet.getId());
+
+        // Deleted through another node: the database no longer has it.
+        when(adoptionRequestRepository.existsByApplicantIdAndPetId(user.getId(), pet.getId())).thenReturn(false);
+        when(userRepository.getReferenceById(user.getId())).thenReturn(user);
+        when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
+        when(adoptionRequestRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertNotNull(adoptionRequestService.createAdoptionRequest(dto));
+        verify(adoptionRequestRepository).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldPassOtherIntegrityViolationsThrough() {
+        mockAuthenticatedUser(user);
+
+        AdoptionRequestDTO dto = new AdoptionRequestDTO();
+        dto.setPetId(pet.getId());
+
+        when(userRepository.getReferenceById(user.getId())).thenReturn(user);
+        when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
+        when(adoptionRequestRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("fk"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> adoptionRequestService.createAdoptionRequest(dto));
+        assertFalse(recentAdoptionRequests.contains(user.getId(), pet.getId()));
     }
 
     @Test
     void shouldReturnUserAdoptionRequests() {
-        mockAuthenticatedUser("gaby@example.com");
+        mockAuthenticatedUser(user);
 
-        when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.of(user));
-        when(adoptionRequestRepository.findByApplicant(user)).thenReturn(List.of(request));
+        when(adoptionRequestRepository.findResponsesByApplicantId(user.getId()))
+                .thenReturn(List.of(responseOf(request)));
 
         List<AdoptionResponseDTO> result = adoptionRequestService.getUserAdoptionRequests();
 
         assertEquals(1, result.size());
-        assertEquals("Lobby", result.get(0).getPetName());
+        assertEquals("Lobby", result.get(0).petName());
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
     void shouldReturnRequestsForMyPets() {
-        mockAuthenticatedUser("gaby@example.com");
+        mockAuthenticatedUser(user);
 
-        when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.of(user));
-        when(adoptionRequestRepository.findByPetOwner(user)).thenReturn(List.of(request));
+        when(adoptionRequestRepository.findResponsesByPetOwnerId(user.getId()))
+                .thenReturn(List.of(responseOf(request)));
 
         List<AdoptionResponseDTO> result = adoptionRequestService.getAdoptionRequestsForMyPets();
 
         assertEquals(1, result.size());
-        assertEquals("Lobby", result.get(0).getPetName());
+        assertEquals("Lobby", result.get(0).petName());
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
     void shouldApproveAdoptionRequestSuccessfully() {
-        mockAuthenticatedUser("gaby@example.com");
+        mockAuthenticatedUser(user);
 
         request.getPet().setStatus(PetStatus.AVAILABLE);
         request.setStatus(AdoptionStatus.PENDING);
 
-        AdoptionRequest otherRequest = AdoptionRequest.builder()
+        when(adoptionRequestRepository.findById(request.getId())).thenReturn(Optional.of(request));
+        when(adoptionRequestRepository.save(any())).thenReturn(request);
+        when(petRepository.save(any())).thenReturn(pet);
+        when(adoptionRequestRepository.rejectOtherPendingRequests(pet.getId(), request.getId())).thenReturn(1);
+
+        User rival = User.builder().id(UUID.randomUUID()).name("Ana").build();
+        AdoptionRequest other = AdoptionRequest.builder()
                 .id(UUID.randomUUID())
+                .applicant(rival)
                 .pet(pet)
                 .status(AdoptionStatus.PENDING)
                 .build();
-
-        when(adoptionRequestRepository.findById(request.getId())).thenReturn(Optional.of(request));
-        when(adoptionRequestRepository.findByPetAndIdNot(pet, request.getId())).thenReturn(List.of(otherRequest));
-        when(adoptionRequestRepository.save(any())).thenReturn(request);
-        when(petRepository.save(any())).thenReturn(pet);
+        when(adoptionRequestRepository.findResponsesByPetId(pet.getId()))
+                .thenReturn(List.of(responseOf(request), responseOf(other)));
 
         AdoptionResponseDTO result = adoptionRequestService.approveRequest(request.getId());
 
-        assertEquals(AdoptionStatus.APPROVED, result.getStatus());
+        assertEquals(AdoptionStatus.APPROVED, result.status());
         assertEquals(PetStatus.ADOPTED, pet.getStatus());
-        verify(adoptionRequestRepository).saveAll(any());
+        verify(adoptionRequestRepository).rejectOtherPendingRequests(pet.getId(), request.getId());
+        verify(outboxService).publish(OutboxEventType.PET_CHANGED, pet.getId(), null);
+        verify(outboxService).publish(OutboxEventType.ADOPTION_STATUS_CHANGED, request.getId(), result);
+        AdoptionResponseDTO rejected = responseOf(other).withStatus(AdoptionStatus.REJECTED);
+        verify(outboxService).publish(OutboxEventType.ADOPTION_STATUS_CHANGED, other.getId(), rejected);
+    }
+
+    @Test
+    void shouldNotApproveRequestForSomeoneElsesPet() {
+        mockAuthenticatedUser(User.builder().id(UUID.randomUUID()).name("Ana").email("ana@example.com").build());
+
+        when(adoptionRequestRepository.findById(request.getId())).thenReturn(Optional.of(request));
+
+        assertThrows(AccessDeniedException.class, () ->
+                adoptionRequestService.approveRequest(request.getId()));
+
+        assertEquals(AdoptionStatus.PENDING, request.getStatus());
+        verifyNoInteractions(shelterStatsService, outboxService);
+    }
+
+    @Test
+    void shouldNotApproveRequestForAlreadyAdoptedPet() {
+        mockAuthenticatedUser(user);
+
+        pet.setStatus(PetStatus.ADOPTED);
+        when(adoptionRequestRepository.findById(request.getId())).thenReturn(Optional.of(request));
+
+        assertThrows(AdoptionConflictException.class, () ->
+                adoptionRequestService.approveRequest(request.getId()));
+
+        assertEquals(AdoptionStatus.PENDING, request.getStatus());
+        verify(adoptionRequestRepository, never()).rejectOtherPendingRequests(any(), any());
+    }
+
+    @Test
+    void shouldNotApproveRequestThatWasAlreadyDecided() {
+        request.setStatus(AdoptionStatus.REJECTED);
+        when(adoptionRequestRepository.findById(request.getId())).thenReturn(Optional.of(request));
+
+        assertThrows(AdoptionConflictException.class, () ->
+                adoptionRequestService.approveRequest(request.getId()));
+
+        assertNotEquals(PetStatus.ADOPTED, pet.getStatus());
+        verifyNoInteractions(shelterStatsService, outboxService);
     }
 }
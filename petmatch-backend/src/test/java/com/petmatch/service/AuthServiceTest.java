@@ -10,7 +10,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,7 +23,7 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @InjectMocks
     private AuthService authService;
@@ -49,14 +48,14 @@ class AuthServiceTest {
     @Test
     void shouldAuthenticateUserSuccessfully() {
         when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches("secret123", "hashedPassword")).thenReturn(true);
+        when(passwordHasher.matches("secret123", "hashedPassword")).thenReturn(true);
 
         User result = authService.authenticate(loginRequest);
 
         assertNotNull(result);
         assertEquals("gaby@example.com", result.getEmail());
         verify(userRepository, times(1)).findByEmail("gaby@example.com");
-        verify(passwordEncoder, times(1)).matches("secret123", "hashedPassword");
+        verify(passwordHasher, times(1)).matches("secret123", "hashedPassword");
     }
 
     @Test
@@ -68,18 +67,18 @@ class AuthServiceTest {
 
         assertEquals("Email not found", exception.getMessage());
         verify(userRepository, times(1)).findByEmail("gaby@example.com");
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHasher, never()).matches(any(), any());
     }
 
     @Test
     void shouldThrowExceptionWhenPasswordIsInvalid() {
         when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches("secret123", "hashedPassword")).thenReturn(false);
+        when(passwordHasher.matches("secret123", "hashedPassword")).thenReturn(false);
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 authService.authenticate(loginRequest));
 
         assertEquals("Invalid password", exception.getMessage());
-        verify(passwordEncoder, times(1)).matches("secret123", "hashedPassword");
+        verify(passwordHasher, times(1)).matches("secret123", "hashedPassword");
     }
 }
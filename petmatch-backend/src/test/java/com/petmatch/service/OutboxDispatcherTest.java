@@ -0,0 +1,224 @@
+package com.petmatch.service;
+
+import com.petmatch.model.OutboxEvent;
+import com.petmatch.model.OutboxEventType;
+import com.petmatch.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    private static final List<String> TYPES = List.of(OutboxEventType.PET_CHANGED.name(),
+            OutboxEventType.ADOPTION_STATUS_CHANGED.name(), OutboxEventType.ADOPTION_REQUESTED.name());
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxEventHandler petHandler;
+
+    @Mock
+    private OutboxEventHandler statusHandler;
+
+    @Mock
+    private OutboxEventHandler indexHandler;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxDispatcher dispatcher;
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        when(petHandler.type()).thenReturn(OutboxEventType.PET_CHANGED);
+        when(statusHandler.type()).thenReturn(OutboxEventType.ADOPTION_STATUS_CHANGED);
+        when(indexHandler.type()).thenReturn(OutboxEventType.ADOPTION_REQUESTED);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new OutboxDispatcher(outboxEventRepository, null, List.of(petHandler, statusHandler, indexHandler),
+                meterRegistry, 10, 3, Duration.ofSeconds(1), Duration.ofMinutes(5), Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldHandleEventsInBatchesPerType() {
+        when(outboxEventRepository.findOldestRunningTransaction()).thenReturn(500L);
+        OutboxEvent first = event(OutboxEventType.PET_CHANGED);
+        OutboxEvent status = event(OutboxEventType.ADOPTION_STATUS_CHANGED);
+        OutboxEvent second = event(OutboxEventType.PET_CHANGED);
+        when(outboxEventRepository.findCommittedAfter(500L, 0L, TYPES, 10)).thenReturn(List.of(first, status, second));
+
+        assertEquals(3, dispatcher.followBatch());
+
+        verify(petHandler).handle(List.of(first, second));
+        verify(statusHandler).handle(List.of(status));
+        assertEquals(3.0, meterRegistry.get("petmatch.outbox.delivered").counter().count());
+    }
+
+    @Test
+    void shouldRejectTwoHandlersForTheSameType() {
+        OutboxEventHandler duplicate = mock(OutboxEventHandler.class);
+        when(duplicate.type()).thenReturn(OutboxEventType.PET_CHANGED);
+
+        assertThrows(IllegalStateException.class, () -> new OutboxDispatcher(outboxEventRepository, null,
+                List.of(petHandler, duplicate), meterRegistry, 10, 3, Duration.ofSeconds(1), Duration.ofMinutes(5),
+                Duration.ofHours(1)));
+    }
+
+    @Test
+    void shouldFollowEventsFromThePositionTakenAtStartupWithoutDeletingThem() {
+        when(outboxEventRepository.findOldestRunningTransaction()).thenReturn(500L);
+        OutboxEvent first = event(OutboxEventType.ADOPTION_REQUESTED);
+        OutboxEvent second = event(OutboxEventType.ADOPTION_REQUESTED);
+        when(outboxEventRepository.findCommittedAfter(500L, 0L, TYPES, 10)).thenReturn(List.of(first, second));
+        when(outboxEventRepository.findCommittedAfter(second.getTxId(), second.getId(), TYPES, 10))
+                .thenReturn(List.of());
+        dispatcher.afterSingletonsInstantiated();
+
+        assertEquals(2, dispatcher.followBatch());
+        assertEquals(0, dispatcher.followBatch());
+
+        verify(indexHandler).handle(List.of(first, second));
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+        assertEquals(2.0, meterRegistry.get("petmatch.outbox.delivered").counter().count());
+    }
+
+    @Test
+    void shouldBackOffBeforeReadingAFailedEventAgain() {
+        when(outboxEventRepository.findOldestRunningTransaction()).thenReturn(500L);
+        OutboxEvent failing = event(OutboxEventType.ADOPTION_REQUESTED);
+        when(outboxEventRepository.findCommittedAfter(500L, 0L, TYPES, 10)).thenReturn(List.of(failing));
+        doThrow(new IllegalStateException("boom")).when(indexHandler).handle(any());
+
+        assertEquals(0, dispatcher.followBatch());
+        assertEquals(0, dispatcher.followBatch());
+
+        verify(indexHandler, times(1)).handle(any());
+        assertEquals(1.0, meterRegistry.get("petmatch.outbox.retried").counter().count());
+    }
+
+    @Test
+    void shouldHoldThePositionAtAFailedEventAndSkipItAfterMaxAttempts() {
+        dispatcher = new OutboxDispatcher(outboxEventRepository, null, List.of(petHandler, statusHandler, indexHandler),
+                meterRegistry, 10, 3, Duration.ZERO, Duration.ZERO, Duration.ofHours(1));
+        when(outboxEventRepository.findOldestRunningTransaction()).thenReturn(500L);
+        OutboxEvent done = event(OutboxEventType.ADOPTION_REQUESTED);
+        OutboxEvent failing = event(OutboxEventType.ADOPTION_REQUESTED);
+        when(outboxEventRepository.findCommittedAfter(500L, 0L, TYPES, 10)).thenReturn(List.of(done));
+        when(outboxEventRepository.findCommittedAfter(done.getTxId(), done.getId(), TYPES, 10))
+                .thenReturn(List.of(failing));
+        doNothing().doThrow(new IllegalStateException("boom")).when(indexHandler).handle(any());
+        dispatcher.afterSingletonsInstantiated();
+
+        for (int poll = 0; poll < 5; poll++) {
+            dispatcher.followBatch();
+        }
+
+        verify(indexHandler).handle(List.of(done));
+        verify(indexHandler, times(3)).handle(List.of(failing));
+        verify(outboxEventRepository).findCommittedAfter(failing.getTxId(), failing.getId(), TYPES, 10);
+        assertEquals(1.0, meterRegistry.get("petmatch.outbox.delivered").counter().count());
+        assertEquals(1.0, meterRegistry.get("petmatch.outbox.parked").counter().count());
+
+        // Whatever the skipped event would have changed is reloaded instead.
+        dispatcher.resync(LocalDateTime.now());
+        dispatcher.resync(LocalDateTime.now());
+        verify(indexHandler).resync();
+        verify(petHandler, never()).resync();
+        verify(statusHandler, never()).resync();
+    }
+
+    @Test
+    void shouldStartOverAndResyncEveryHandlerWhenBehindTheRetention() {
+        when(outboxEventRepository.findOldestRunningTransaction()).thenReturn(500L, 900L);
+        when(outboxEventRepository.findCommittedAfter(500L, 0L, TYPES, 10)).thenReturn(List.of());
+        dispatcher.afterSingletonsInstantiated();
+        assertEquals(0, dispatcher.followBatch());
+
+        dispatcher.resync(LocalDateTime.now().plusMinutes(59));
+        verify(petHandler, never()).resync();
+
+        dispatcher.resync(LocalDateTime.now().plusMinutes(61));
+        verify(petHandler).resync();
+        verify(statusHandler).resync();
+        verify(indexHandler).resync();
+        assertEquals(3.0, meterRegistry.get("petmatch.outbox.resynced").counter().count());
+
+        dispatcher.followBatch();
+        verify(outboxEventRepository).findCommittedAfter(900L, 0L, TYPES, 10);
+    }
+
+    @Test
+    void shouldResyncEveryHandlerWhenTheStartPositionWasTakenLate() {
+        when(outboxEventRepository.findOldestRunningTransaction())
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(500L);
+        when(outboxEventRepository.findCommittedAfter(500L, 0L, TYPES, 10)).thenReturn(List.of());
+        dispatcher.afterSingletonsInstantiated();
+
+        dispatcher.followBatch();
+        dispatcher.resync(LocalDateTime.now());
+
+        verify(petHandler).resync();
+        verify(statusHandler).resync();
+        verify(indexHandler).resync();
+    }
+
+    @Test
+    void shouldRetryAFailedResyncOnTheNextPoll() {
+        dispatcher = new OutboxDispatcher(outboxEventRepository, null, List.of(petHandler, statusHandler, indexHandler),
+                meterRegistry, 10, 1, Duration.ZERO, Duration.ZERO, Duration.ofHours(1));
+        when(outboxEventRepository.findOldestRunningTransaction()).thenReturn(500L);
+        OutboxEvent failing = event(OutboxEventType.PET_CHANGED);
+        when(outboxEventRepository.findCommittedAfter(500L, 0L, TYPES, 10)).thenReturn(List.of(failing));
+        doThrow(new IllegalStateException("boom")).when(petHandler).handle(any());
+        doThrow(new IllegalStateException("still down")).doNothing().when(petHandler).resync();
+        dispatcher.afterSingletonsInstantiated();
+        dispatcher.followBatch();
+
+        dispatcher.resync(LocalDateTime.now());
+        dispatcher.resync(LocalDateTime.now());
+        dispatcher.resync(LocalDateTime.now());
+
+        verify(petHandler, times(2)).resync();
+        assertEquals(1.0, meterRegistry.get("petmatch.outbox.resynced").counter().count());
+    }
+
+    @Test
+    void shouldPruneEventsOlderThanTheRetention() {
+        dispatcher = new OutboxDispatcher(outboxEventRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                List.of(petHandler, indexHandler), meterRegistry, 10, 3, Duration.ofSeconds(1), Duration.ofMinutes(5),
+                Duration.ofHours(1));
+        LocalDateTime before = LocalDateTime.now().minusHours(1);
+
+        dispatcher.prune();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).deleteCreatedBefore(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before));
+    }
+
+    private OutboxEvent event(OutboxEventType type) {
+        return OutboxEvent.builder()
+                .id(++nextId)
+                .txId(1000 + nextId)
+                .type(type)
+                .aggregateId(UUID.randomUUID())
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.petmatch.service;
+
+import com.petmatch.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        if (passwordHasher != null) {
+            passwordHasher.shutdown();
+        }
+    }
+
+    @Test
+    void shouldEncodeAndMatchOnThePool() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), meterRegistry, 1, 4, Duration.ofSeconds(5));
+
+        String hash = passwordHasher.encode("secret123");
+
+        assertTrue(passwordHasher.matches("secret123", hash));
+        assertFalse(passwordHasher.matches("wrong", hash));
+        assertNotNull(meterRegistry.find("executor.completed").tag("name", "passwordHashing").functionCounter());
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = mock(PasswordEncoder.class);
+        when(blockingEncoder.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hashed";
+        });
+        passwordHasher = new PasswordHasher(blockingEncoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHasher.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHasher.encode("b"));
+        while (meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(ServiceOverloadedException.class, () -> passwordHasher.encode("c"));
+        assertEquals(1.0, meterRegistry.get("petmatch.password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hashed", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldShedHashesStillQueuedPastTheTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = mock(PasswordEncoder.class);
+        when(blockingEncoder.encode("a")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hashed";
+        });
+        passwordHasher = new PasswordHasher(blockingEncoder, meterRegistry, 1, 1, Duration.ofMillis(50));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHasher.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServiceOverloadedException.class, () -> passwordHasher.encode("b"));
+        assertEquals(0.0, meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge().value());
+
+        release.countDown();
+        assertEquals("hashed", running.get(5, TimeUnit.SECONDS));
+        verify(blockingEncoder, never()).encode("b");
+    }
+
+    @Test
+    void shouldWaitForAHashThatHasStartedPastTheTimeout() {
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.matches(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return true;
+        });
+        passwordHasher = new PasswordHasher(slowEncoder, meterRegistry, 1, 1, Duration.ofMillis(50));
+
+        assertTrue(passwordHasher.matches("secret123", "hash"));
+        assertEquals(0.0, meterRegistry.get("petmatch.password.hashing.rejected").counter().count());
+    }
+}
@@ -0,0 +1,72 @@
+package com.petmatch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmatch.dto.PetResponseDTO;
+import com.petmatch.model.PetType;
+import com.petmatch.repository.PetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetExportServiceTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PetExportService petExportService;
+
+    @BeforeEach
+    void setUp() {
+        petExportService = new PetExportService(petRepository, objectMapper);
+    }
+
+    @Test
+    void shouldWriteOnePetPerLineAndCloseTheStream() throws Exception {
+        PetResponseDTO lobby = new PetResponseDTO(UUID.randomUUID(), "Lobby", PetType.DOG,
+                "Labrador", "Male", 3, "Very friendly", -34.6, -58.4);
+        PetResponseDTO misu = new PetResponseDTO(UUID.randomUUID(), "Misu", PetType.CAT,
+                "Siamese", "Female", 1, null, null, null);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(petRepository.streamAllForExport())
+                .thenReturn(Stream.of(lobby, misu).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = petExportService.exportPets(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Lobby", first.get("name").asText());
+        assertEquals("DOG", first.get("type").asText());
+        assertEquals("Misu", objectMapper.readTree(lines[1]).get("name").asText());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void shouldWriteNothingForEmptyCatalog() throws Exception {
+        when(petRepository.streamAllForExport()).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, petExportService.exportPets(out));
+        assertEquals(0, out.size());
+    }
+}
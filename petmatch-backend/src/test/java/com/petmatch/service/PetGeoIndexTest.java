@@ -0,0 +1,162 @@
+package com.petmatch.service;
+
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.repository.PetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PetGeoIndexTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    private PetGeoIndex index;
+
+    // Around Buenos Aires: Palermo, San Telmo (about 6 km away) and La Plata (about 53 km away).
+    private Pet palermo;
+    private Pet sanTelmo;
+    private Pet laPlata;
+
+    @BeforeEach
+    void setUp() {
+        index = new PetGeoIndex(petRepository);
+
+        palermo = pet(PetType.DOG, PetStatus.AVAILABLE, -34.5889, -58.4199);
+        sanTelmo = pet(PetType.CAT, PetStatus.AVAILABLE, -34.6212, -58.3731);
+        laPlata = pet(PetType.DOG, PetStatus.ADOPTED, -34.9214, -57.9545);
+        index.index(palermo);
+        index.index(sanTelmo);
+        index.index(laPlata);
+    }
+
+    @Test
+    void shouldReturnPetsWithinTheRadiusNearestFirst() {
+        List<PetGeoIndex.Hit> hits = index.nearest(-34.5880, -58.4200, 25, null, null, 10);
+
+        assertEquals(List.of(palermo.getId(), sanTelmo.getId()), ids(hits));
+        assertTrue(hits.get(0).distanceKm() < 0.2);
+        assertEquals(5.5, hits.get(1).distanceKm(), 0.5);
+        assertEquals(3, index.nearest(-34.5880, -58.4200, 100, null, null, 10).size());
+    }
+
+    @Test
+    void shouldCombineDistanceWithTypeAndStatusFilters() {
+        assertEquals(List.of(laPlata.getId()), ids(index.nearest(-34.5880, -58.4200, 100, PetType.DOG, PetStatus.ADOPTED, 10)));
+        assertEquals(List.of(sanTelmo.getId()), ids(index.nearest(-34.5880, -58.4200, 100, PetType.CAT, null, 10)));
+        assertEquals(List.of(palermo.getId()), ids(index.nearest(-34.5880, -58.4200, 100, null, null, 1)));
+    }
+
+    @Test
+    void shouldMoveAndDropPetsIncrementally() {
+        palermo.setLatitude(-34.92);
+        palermo.setLongitude(-57.95);
+        index.onPetSaved(palermo);
+        sanTelmo.setLatitude(null);
+        sanTelmo.setLongitude(null);
+        index.onPetSaved(sanTelmo);
+        index.onPetDeleted(laPlata.getId());
+
+        assertTrue(index.nearest(-34.5880, -58.4200, 25, null, null, 10).isEmpty());
+        assertEquals(List.of(palermo.getId()), ids(index.nearest(-34.5880, -58.4200, 100, null, null, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void shouldReloadEveryLocatedPetAndDropTheOnesThatAreGone() {
+        palermo.setLatitude(-34.92);
+        palermo.setLongitude(-57.95);
+        when(petRepository.findBy(ArgumentMatchers.<Specification<Pet>>any(), any())).thenReturn(List.of(palermo));
+
+        index.reload();
+
+        assertTrue(index.nearest(-34.5880, -58.4200, 25, null, null, 10).isEmpty());
+        assertEquals(List.of(palermo.getId()), ids(index.nearest(-34.5880, -58.4200, 100, null, null, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void shouldFindPetsAcrossTheDateLineAndNearThePoles() {
+        Pet fiji = pet(PetType.BIRD, PetStatus.AVAILABLE, -17.0, 179.999);
+        Pet polar = pet(PetType.BIRD, PetStatus.AVAILABLE, 89.99, 10.0);
+        index.index(fiji);
+        index.index(polar);
+
+        assertEquals(List.of(fiji.getId()), ids(index.nearest(-17.0, -179.999, 10, PetType.BIRD, null, 10)));
+        assertEquals(List.of(polar.getId()), ids(index.nearest(89.99, -170.0, 10, PetType.BIRD, null, 10)));
+    }
+
+    @Test
+    void shouldMatchABruteForceScanOnRandomPoints() {
+        index = new PetGeoIndex(petRepository);
+        Random random = new Random(7);
+        List<Pet> pets = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Pet pet = pet(PetType.values()[random.nextInt(PetType.values().length)], PetStatus.AVAILABLE,
+                    -35 + random.nextGaussian(), -58 + random.nextGaussian());
+            pets.add(pet);
+            index.index(pet);
+        }
+
+        for (int query = 0; query < 20; query++) {
+            double latitude = -35 + random.nextGaussian();
+            double longitude = -58 + random.nextGaussian();
+            List<UUID> expected = pets.stream()
+                    .filter(pet -> pet.getType() == PetType.DOG)
+                    .sorted(Comparator.comparingDouble(pet -> PetGeoIndex.distanceKm(
+                            latitude, longitude, pet.getLatitude(), pet.getLongitude())))
+                    .filter(pet -> PetGeoIndex.distanceKm(latitude, longitude, pet.getLatitude(), pet.getLongitude()) <= 80)
+                    .limit(15)
+                    .map(Pet::getId)
+                    .toList();
+
+            assertEquals(expected, ids(index.nearest(latitude, longitude, 80, PetType.DOG, PetStatus.AVAILABLE, 15)));
+        }
+    }
+
+    @Test
+    void shouldRejectCoordinatesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(91, 0, 10, null, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(0, -181, 10, null, null, 10));
+    }
+
+    @Test
+    void shouldRejectNonFiniteInput() {
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(Double.NaN, 0, 10, null, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(0, Double.NaN, 10, null, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(0, 0, Double.NaN, null, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(0, 0, Double.POSITIVE_INFINITY, null, null, 10));
+    }
+
+    private static List<UUID> ids(List<PetGeoIndex.Hit> hits) {
+        return hits.stream().map(PetGeoIndex.Hit::id).toList();
+    }
+
+    private static Pet pet(PetType type, PetStatus status, double latitude, double longitude) {
+        return Pet.builder()
+                .id(UUID.randomUUID())
+                .name("Pet")
+                .type(type)
+                .status(status)
+                .latitude(latitude)
+                .longitude(longitude)
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.petmatch.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petmatch.dto.PetImportReportDTO;
+import com.petmatch.model.OutboxEventType;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.ResourceVersion;
+import com.petmatch.model.User;
+import com.petmatch.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetImportServiceTest {
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ShelterStatsService shelterStatsService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    private final List<Pet> persisted = new ArrayList<>();
+    private PetImportService petImportService;
+    private User shelter;
+
+    @BeforeEach
+    void setUp() {
+        petImportService = new PetImportService(resourceVersionService, outboxService,
+                shelterStatsService, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(),
+                new TransactionTemplate(transactionManager), entityManager, 2, 1);
+
+        shelter = User.builder().id(UUID.randomUUID()).email("shelter@example.com").build();
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        lenient().when(entityManager.getReference(User.class, shelter.getId())).thenReturn(shelter);
+        lenient().doAnswer(invocation -> {
+            Pet pet = invocation.getArgument(0);
+            pet.setId(UUID.randomUUID());
+            persisted.add(pet);
+            return null;
+        }).when(entityManager).persist(any(Pet.class));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(AuthenticatedUser.of(shelter), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldInsertValidPetsInBatchesAndReportTheRest() throws IOException {
+        String json = """
+                [
+                  {"name": "Lobby", "type": "DOG", "breed": "Beagle", "age": 3, "gender": "Male"},
+                  {"name": "", "type": "CAT", "breed": "Siamese", "age": 2, "gender": "Female"},
+                  {"name": "Mia", "type": "CAT", "breed": "Siamese", "age": 2, "gender": "Female"},
+                  {"name": "Rex", "type": "DRAGON", "breed": "Mutt", "age": 5, "gender": "Male"},
+                  {"name": "Toby", "type": "DOG", "breed": "Poodle", "age": 1, "gender": "Male"}
+                ]
+                """;
+
+        PetImportReportDTO report = petImportService.importJson(stream(json));
+
+        assertEquals(5, report.getReceived());
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getRejected());
+        // Only the first error is kept with max-reported-errors of 1.
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        assertEquals(List.of("name: must not be blank"), report.getErrors().get(0).getMessages());
+
+        assertEquals(List.of("Lobby", "Mia", "Toby"), persisted.stream().map(Pet::getName).toList());
+        assertTrue(persisted.stream().allMatch(pet -> pet.getOwner() == shelter
+                && pet.getStatus() == PetStatus.AVAILABLE));
+        // Batches of two: [Lobby, Mia] and [Toby].
+        verify(session, times(2)).setJdbcBatchSize(2);
+        verify(resourceVersionService, times(2)).bump(ResourceVersion.PETS);
+
+        ArgumentCaptor<Object> ids = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService, times(2)).publish(eq(OutboxEventType.PET_CHANGED), any(UUID.class), ids.capture());
+        assertEquals(List.of(persisted.get(0).getId(), persisted.get(1).getId()), ids.getAllValues().get(0));
+        assertEquals(List.of(persisted.get(2).getId()), ids.getAllValues().get(1));
+    }
+
+    @Test
+    void shouldKeepRowsBeforeMalformedJsonAndReportWhereItStopped() throws IOException {
+        String json = """
+                [
+                  {"name": "Lobby", "type": "DOG", "breed": "Beagle", "age": 3, "gender": "Male"},
+                  {"name": "Mia", "type": "CAT", "breed":
+                """;
+
+        PetImportReportDTO report = petImportService.importJson(stream(json));
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        assertEquals(1, persisted.size());
+    }
+
+    @Test
+    void shouldImportCsvWithHeaderInAnyOrderAndRejectBadNumbers() throws IOException {
+        String csv = """
+                type,name,age,breed,gender,description
+                DOG,Lobby,3,Beagle,Male,Friendly
+                CAT,Mia,two,Siamese,Female,
+                """;
+
+        PetImportReportDTO report = petImportService.importCsv(stream(csv));
+
+        assertEquals(2, report.getReceived());
+        assertEquals(1, report.getImported());
+        assertEquals(List.of("age: invalid value"), report.getErrors().get(0).getMessages());
+        assertEquals("Friendly", persisted.get(0).getDescription());
+    }
+
+    @Test
+    void shouldRejectEveryRowOfABatchThatFailsToSave() throws IOException {
+        doThrow(new IllegalStateException("database down")).when(resourceVersionService).bump(ResourceVersion.PETS);
+        String csv = """
+                name,type,breed,age,gender
+                Lobby,DOG,Beagle,3,Male
+                Mia,CAT,Siamese,2,Female
+                """;
+
+        PetImportReportDTO report = petImportService.importCsv(stream(csv));
+
+        assertEquals(0, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertTrue(report.getErrors().get(0).getMessages().get(0).contains("database down"));
+        verify(outboxService, never()).publish(any(), any(), any());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
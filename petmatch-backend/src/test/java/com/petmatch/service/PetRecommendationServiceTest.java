@@ -0,0 +1,124 @@
+package com.petmatch.service;
+
+import com.petmatch.model.AdoptionRequest;
+import com.petmatch.model.AdoptionStatus;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.repository.AdoptionRequestRepository;
+import com.petmatch.repository.PetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetRecommendationServiceTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    @Mock
+    private AdoptionRequestRepository adoptionRequestRepository;
+
+    private PetRecommendationService recommendationService;
+
+    private final UUID adopterId = UUID.randomUUID();
+    private Pet labrador;
+    private Pet poodle;
+    private Pet cat;
+    private Pet requestedLabrador;
+
+    @BeforeEach
+    void setUp() {
+        recommendationService = new PetRecommendationService(petRepository, adoptionRequestRepository, 100, Duration.ofMinutes(5));
+
+        labrador = pet("Lobby", PetType.DOG, "Labrador", 2, 3);
+        poodle = pet("Coco", PetType.DOG, "Poodle", 9, 2);
+        cat = pet("Misha", PetType.CAT, "Siamese", 2, 1);
+        requestedLabrador = pet("Max", PetType.DOG, "Labrador", 3, 4);
+
+        when(petRepository.findBy(ArgumentMatchers.<Specification<Pet>>any(), any())).thenReturn(List.of(cat, poodle, labrador));
+        recommendationService.loadCatalog();
+    }
+
+    @Test
+    void shouldRankPetsSimilarToPreviousRequestsFirst() {
+        givenHistory(requestedLabrador);
+
+        List<UUID> result = recommendationService.recommend(adopterId, 10);
+
+        assertEquals(List.of(labrador.getId(), poodle.getId(), cat.getId()), result);
+    }
+
+    @Test
+    void shouldRecommendNewestPetsWithoutHistory() {
+        givenHistory();
+
+        List<UUID> result = recommendationService.recommend(adopterId, 2);
+
+        assertEquals(List.of(cat.getId(), poodle.getId()), result);
+    }
+
+    @Test
+    void shouldApplyPetChangesWithoutReloadingCatalog() {
+        givenHistory(requestedLabrador);
+        recommendationService.recommend(adopterId, 10);
+
+        labrador.setStatus(PetStatus.ADOPTED);
+        recommendationService.onPetSaved(labrador);
+        Pet newLabrador = pet("Rocky", PetType.DOG, "Labrador", 1, 0);
+        recommendationService.onPetSaved(newLabrador);
+
+        List<UUID> result = recommendationService.recommend(adopterId, 10);
+
+        assertEquals(List.of(newLabrador.getId(), poodle.getId(), cat.getId()), result);
+        verify(petRepository, times(1)).findBy(ArgumentMatchers.<Specification<Pet>>any(), any());
+        verify(adoptionRequestRepository, times(1)).findWithPetByApplicantId(adopterId);
+    }
+
+    @Test
+    void shouldExcludeAndLearnFromNewRequests() {
+        givenHistory();
+        recommendationService.recommend(adopterId, 10);
+
+        recommendationService.onAdoptionRequested(adopterId, cat);
+
+        List<UUID> result = recommendationService.recommend(adopterId, 10);
+
+        assertFalse(result.contains(cat.getId()));
+        assertEquals(List.of(labrador.getId(), poodle.getId()), result);
+    }
+
+    private void givenHistory(Pet... pets) {
+        List<AdoptionRequest> requests = Arrays.stream(pets)
+                .map(pet -> AdoptionRequest.builder().pet(pet).status(AdoptionStatus.PENDING).build())
+                .toList();
+        when(adoptionRequestRepository.findWithPetByApplicantId(adopterId)).thenReturn(requests);
+    }
+
+    private static Pet pet(String name, PetType type, String breed, int age, int daysAgo) {
+        return Pet.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .type(type)
+                .breed(breed)
+                .age(age)
+                .gender("Male")
+                .status(PetStatus.AVAILABLE)
+                .createdAt(LocalDateTime.now().minusDays(daysAgo))
+                .build();
+    }
+}
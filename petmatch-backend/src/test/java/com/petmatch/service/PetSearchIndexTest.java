@@ -0,0 +1,146 @@
+package com.petmatch.service;
+
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.repository.PetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PetSearchIndexTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    private PetSearchIndex index;
+
+    private Pet lab;
+    private Pet golden;
+    private Pet cat;
+
+    @BeforeEach
+    void setUp() {
+        index = new PetSearchIndex(petRepository);
+
+        lab = pet("Lobby", PetType.DOG, PetStatus.AVAILABLE, "Labrador", "Small and very friendly with children");
+        golden = pet("Simba", PetType.DOG, PetStatus.ADOPTED, "Golden retriever", "Friendly, loves to play fetch");
+        cat = pet("Misha", PetType.CAT, PetStatus.AVAILABLE, "Siamese", "Calm lap cat, friendly with dogs");
+        index.index(lab);
+        index.index(golden);
+        index.index(cat);
+    }
+
+    @Test
+    void shouldRankPetsMatchingMoreWordsFirst() {
+        PetSearchIndex.SearchResult result = index.search("small friendly lab", null, null, 10);
+
+        assertEquals(3, result.total());
+        assertEquals(lab.getId(), result.ids().get(0));
+    }
+
+    @Test
+    void shouldToleratePrefixesTyposAndAccents() {
+        assertEquals(List.of(golden.getId()), index.search("retriev", null, null, 10).ids());
+        assertEquals(List.of(golden.getId()), index.search("retreiver", null, null, 10).ids());
+        assertEquals(List.of(cat.getId()), index.search("siamés", null, null, 10).ids());
+    }
+
+    @Test
+    void shouldFilterAndCountFacets() {
+        PetSearchIndex.SearchResult result = index.search("friendly", PetType.DOG, PetStatus.AVAILABLE, 10);
+
+        assertEquals(List.of(lab.getId()), result.ids());
+        assertEquals(Map.of(PetType.DOG, 1L, PetType.CAT, 1L), result.typeCounts());
+        assertEquals(Map.of(PetStatus.AVAILABLE, 1L, PetStatus.ADOPTED, 1L), result.statusCounts());
+    }
+
+    @Test
+    void shouldReindexAndRemovePetsIncrementally() {
+        lab.setDescription("Energetic swimmer");
+        index.onPetSaved(lab);
+        index.onPetDeleted(cat.getId());
+
+        assertEquals(List.of(golden.getId()), index.search("friendly", null, null, 10).ids());
+        assertEquals(List.of(lab.getId()), index.search("swimmer", null, null, 10).ids());
+        assertTrue(index.search("siamese", null, null, 10).ids().isEmpty());
+    }
+
+    @Test
+    void shouldReloadEveryPetAndDropTheOnesThatAreGone() {
+        lab.setDescription("Energetic swimmer");
+        when(petRepository.findBy(ArgumentMatchers.<Specification<Pet>>any(), any())).thenReturn(List.of(lab, golden));
+
+        index.reload();
+
+        assertEquals(List.of(golden.getId()), index.search("friendly", null, null, 10).ids());
+        assertEquals(List.of(lab.getId()), index.search("swimmer", null, null, 10).ids());
+        assertTrue(index.search("siamese", null, null, 10).ids().isEmpty());
+    }
+
+    @Test
+    void shouldKeepResultsAfterCompactingDeadSlots() {
+        for (int i = 0; i < 2000; i++) {
+            index.index(pet("Filler" + i, PetType.BIRD, PetStatus.AVAILABLE, "Parakeet", "Chirpy"));
+        }
+        for (int i = 0; i < 2000; i++) {
+            golden.setDescription("Friendly, revision " + i);
+            index.index(golden);
+        }
+
+        PetSearchIndex.SearchResult result = index.search("friendly", null, null, 10);
+
+        assertEquals(3, result.total());
+        assertEquals(2000, index.search("chirpy", null, null, 10).total());
+    }
+
+    @Test
+    void shouldNotCarryScoresOverBetweenQueries() {
+        PetSearchIndex.SearchResult first = index.search("friendly dogs", null, null, 10);
+        index.search("friendly lap cat", null, null, 10);
+        index.search("golden", null, null, 10);
+
+        assertEquals(first, index.search("friendly dogs", null, null, 10));
+    }
+
+    @Test
+    void shouldUseOnlyTheFirstQueryWords() {
+        String filler = IntStream.range(0, PetSearchIndex.MAX_QUERY_WORDS).mapToObj(i -> "word" + i)
+                .collect(Collectors.joining(" "));
+
+        assertEquals(0, index.search(filler + " siamese", null, null, 10).total());
+        assertEquals(List.of(cat.getId()), index.search("siamese " + filler, null, null, 10).ids());
+    }
+
+    @Test
+    void shouldStopEditDistanceEarly() {
+        assertEquals(1, PetSearchIndex.editDistance("frendly", "friendly", 2));
+        assertEquals(3, PetSearchIndex.editDistance("cat", "poodle", 2));
+    }
+
+    private static Pet pet(String name, PetType type, PetStatus status, String breed, String description) {
+        return Pet.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .type(type)
+                .status(status)
+                .breed(breed)
+                .description(description)
+                .build();
+    }
+}
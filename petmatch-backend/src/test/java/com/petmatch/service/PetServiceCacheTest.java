@@ -0,0 +1,152 @@
+package com.petmatch.service;
+
+import com.petmatch.config.CacheConfig;
+import com.petmatch.dto.PetRequestDTO;
+import com.petmatch.model.Pet;
+import com.petmatch.model.PetStatus;
+import com.petmatch.model.PetType;
+import com.petmatch.repository.PetRepository;
+import com.petmatch.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class PetServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, PetService.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.PETS, CacheConfig.USERS_BY_EMAIL);
+        }
+    }
+
+    @MockitoBean
+    private PetRepository petRepository;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private PetRecommendationService petRecommendationService;
+
+    @MockitoBean
+    private PetSearchIndex petSearchIndex;
+
+    @MockitoBean
+    private PetGeoIndex petGeoIndex;
+
+    @MockitoBean
+    private ResourceVersionService resourceVersionService;
+
+    @MockitoBean
+    private OutboxService outboxService;
+
+    @MockitoBean
+    private ShelterStatsService shelterStatsService;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Pet pet;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PETS).clear();
+
+        pet = Pet.builder()
+                .id(UUID.randomUUID())
+                .name("Lobby")
+                .age(3)
+                .type(PetType.DOG)
+                .breed("Labrador")
+                .gender("Male")
+                .status(PetStatus.AVAILABLE)
+                .build();
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
+
+        petService.getPetById(pet.getId());
+        petService.getPetById(pet.getId());
+
+        verify(petRepository, times(1)).findById(pet.getId());
+    }
+
+    @Test
+    void shouldEvictOnUpdate() {
+        when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
+        when(petRepository.save(any(Pet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        petService.getPetById(pet.getId());
+
+        petService.updatePet(pet.getId(), update("Lobby Jr"));
+
+        assertEquals("Lobby Jr", petService.getPetById(pet.getId()).name());
+        // First read, the update, and the read after eviction.
+        verify(petRepository, times(3)).findById(pet.getId());
+    }
+
+    @Test
+    void shouldEvictOnlyOnceTheUpdateCommits() {
+        when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
+        when(petRepository.save(any(Pet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        petService.getPetById(pet.getId());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            petService.updatePet(pet.getId(), update("Lobby Jr"));
+            assertNotNull(cacheManager.getCache(CacheConfig.PETS).get(pet.getId()));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertNull(cacheManager.getCache(CacheConfig.PETS).get(pet.getId()));
+    }
+
+    @Test
+    void shouldEvictOnDelete() {
+        when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
+        when(petRepository.findCountedById(pet.getId())).thenReturn(Optional.of(
+                new PetRepository.CountedPet(null, pet.getType(), pet.getStatus())));
+        when(petRepository.removeById(pet.getId())).thenReturn(1);
+        petService.getPetById(pet.getId());
+
+        petService.deletePet(pet.getId());
+        petService.getPetById(pet.getId());
+
+        // Once to cache and once after eviction; the delete doesn't load the pet.
+        verify(petRepository, times(2)).findById(pet.getId());
+    }
+
+    private static PetRequestDTO update(String name) {
+        PetRequestDTO update = new PetRequestDTO();
+        update.setName(name);
+        update.setAge(4);
+        update.setType(PetType.DOG);
+        return update;
+    }
+}
@@ -1,12 +1,18 @@
 package com.petmatch.service;
 
+import com.petmatch.dto.NearbyPetDTO;
+import com.petmatch.dto.PetPageResponseDTO;
 import com.petmatch.dto.PetRequestDTO;
 import com.petmatch.dto.PetResponseDTO;
+import com.petmatch.dto.PetSearchCriteria;
 import com.petmatch.model.*;
+import com.petmatch.repository.PetCursor;
 import com.petmatch.repository.PetRepository;
 
 import com.petmatch.repository.UserRepository;
+import com.petmatch.security.AuthenticatedUser;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,11 +20,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -35,6 +43,27 @@ class PetServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PetRecommendationService petRecommendationService;
+
+    @Mock
+    private PetSearchIndex petSearchIndex;
+
+    @Mock
+    private PetGeoIndex petGeoIndex;
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ShelterStatsService shelterStatsService;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private PetService petService;
 
@@ -54,6 +83,11 @@ class PetServiceTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     void shouldReturnPetWhenGetPetById() {
         when(petRepository.findById(pet.getId())).thenReturn(Optional.of(pet));
@@ -61,8 +95,8 @@ class PetServiceTest {
         PetResponseDTO result = petService.getPetById(pet.getId());
 
         assertNotNull(result);
-        assertEquals("Lobby", result.getName());
-        assertEquals(PetType.DOG, result.getType());
+        assertEquals("Lobby", result.name());
+        assertEquals(PetType.DOG, result.type());
         verify(petRepository, times(1)).findById(pet.getId());
     }
 
@@ -78,7 +112,8 @@ class PetServiceTest {
     }
 
     @Test
-    void shouldReturnAllPets() {
+    void shouldReturnFirstPageWithNextCursor() {
+        pet.setCreatedAt(LocalDateTime.now());
         Pet pet2 = Pet.builder()
                 .id(UUID.randomUUID())
                 .name("Simba")
@@ -88,16 +123,34 @@ class PetServiceTest {
                 .gender("Male")
                 .description("Very playful and friendly with children.")
                 .status(PetStatus.AVAILABLE)
+                .createdAt(LocalDateTime.now().minusDays(1))
                 .build();
 
-        when(petRepository.findAll()).thenReturn(List.of(pet, pet2));
+        when(petRepository.findBy(any(Specification.class), any())).thenReturn(List.of(pet, pet2));
+
+        PetPageResponseDTO result = petService.searchPets(new PetSearchCriteria(), null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("Lobby", result.getItems().get(0).name());
+        assertEquals(PetCursor.of(pet), PetCursor.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutCursor() {
+        when(petRepository.findBy(any(Specification.class), any())).thenReturn(List.of(pet));
 
-        var result = petService.getAllPets();
+        PetPageResponseDTO result = petService.searchPets(new PetSearchCriteria(), null, 20);
 
-        assertEquals(2, result.size());
-        assertEquals("Lobby", result.get(0).getName());
-        assertEquals("Simba", result.get(1).getName());
-        verify(petRepository, times(1)).findAll();
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () ->
+                petService.searchPets(new PetSearchCriteria(), "not-a-cursor", 20));
+
+        verify(petRepository, never()).findBy(any(Specification.class), any());
     }
 
     @Test
@@ -109,30 +162,77 @@ class PetServiceTest {
         PetResponseDTO result = petService.updatePetStatus(id, PetStatus.ADOPTED);
 
         assertEquals(PetStatus.ADOPTED, pet.getStatus());
-        assertEquals("Lobby", result.getName());
+        assertEquals("Lobby", result.name());
         verify(petRepository, times(1)).findById(id);
         verify(petRepository, times(1)).save(pet);
+        verify(resourceVersionService, times(1)).bump(ResourceVersion.PETS);
+        verify(outboxService, times(1)).publish(OutboxEventType.PET_CHANGED, id, null);
+        verifyNoInteractions(petSearchIndex);
+    }
+
+    @Test
+    void shouldBuildPetETagFromVersionWithoutLoadingPet() {
+        when(petRepository.findVersionById(pet.getId())).thenReturn(Optional.of(3L));
+
+        assertEquals("\"" + pet.getId() + "-3\"", petService.getPetETag(pet.getId()));
+        verify(petRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldReturnRecommendedPetsInRankingOrder() {
+        User user = User.builder().id(UUID.randomUUID()).email("gaby@example.com").build();
+        Pet other = Pet.builder().id(UUID.randomUUID()).name("Simba").type(PetType.DOG).build();
+
+        Authentication authentication = mock(Authentication.class);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(user));
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        when(petRecommendationService.recommend(user.getId(), 10)).thenReturn(List.of(other.getId(), pet.getId()));
+        when(petRepository.findAllById(List.of(other.getId(), pet.getId()))).thenReturn(List.of(pet, other));
+
+        List<PetResponseDTO> result = petService.getRecommendedPets(10);
+
+        assertEquals(List.of("Simba", "Lobby"), result.stream().map(PetResponseDTO::name).toList());
     }
 
     @Test
     void shouldDeletePetSuccessfully() {
         UUID id = pet.getId();
-        when(petRepository.existsById(id)).thenReturn(true);
+        PetRepository.CountedPet counted = new PetRepository.CountedPet(UUID.randomUUID(), PetType.DOG, PetStatus.AVAILABLE);
+        when(petRepository.findCountedById(id)).thenReturn(Optional.of(counted));
+        when(petRepository.removeById(id)).thenReturn(1);
 
         petService.deletePet(id);
 
-        verify(petRepository, times(1)).deleteById(id);
+        verify(petRepository, never()).findById(any());
+        verify(shelterStatsService).petRemoved(counted);
+        verify(outboxService, times(1)).publish(OutboxEventType.PET_CHANGED, id, null);
     }
 
     @Test
     void shouldThrowExceptionWhenDeletingNonexistentPet() {
         UUID id = UUID.randomUUID();
-        when(petRepository.existsById(id)).thenReturn(false);
+        when(petRepository.findCountedById(id)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () ->
                 petService.deletePet(id));
 
-        verify(petRepository, never()).deleteById(any());
+        verify(petRepository, never()).removeById(any());
+    }
+
+    @Test
+    void shouldReportNotFoundWhenPetIsDeletedConcurrently() {
+        UUID id = pet.getId();
+        when(petRepository.findCountedById(id)).thenReturn(Optional.of(
+                new PetRepository.CountedPet(UUID.randomUUID(), PetType.DOG, PetStatus.AVAILABLE)));
+        when(petRepository.removeById(id)).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () ->
+                petService.deletePet(id));
+
+        verifyNoInteractions(shelterStatsService, outboxService);
     }
 
 
@@ -146,10 +246,25 @@ class PetServiceTest {
         var result = petService.getPetsByUserId(userId);
 
         assertEquals(1, result.size());
-        assertEquals("Lobby", result.get(0).getName());
+        assertEquals("Lobby", result.get(0).name());
         verify(petRepository, times(1)).findByOwnerId(userId);
     }
 
+    @Test
+    void shouldReturnNearbyPetsInDistanceOrderSkippingDeletedOnes() {
+        UUID deleted = UUID.randomUUID();
+        when(petGeoIndex.nearest(-34.6, -58.4, 10, PetType.DOG, PetStatus.AVAILABLE, 20)).thenReturn(List.of(
+                new PetGeoIndex.Hit(deleted, 0.5),
+                new PetGeoIndex.Hit(pet.getId(), 1.5)));
+        when(petRepository.findAllById(List.of(deleted, pet.getId()))).thenReturn(List.of(pet));
+
+        List<NearbyPetDTO> result = petService.findNearbyPets(-34.6, -58.4, 10, PetType.DOG, PetStatus.AVAILABLE, 20);
+
+        assertEquals(1, result.size());
+        assertEquals("Lobby", result.get(0).pet().name());
+        assertEquals(1.5, result.get(0).distanceKm());
+    }
+
     @Test
     void shouldCreatePetWithAuthenticatedUser() {
 
@@ -167,18 +282,16 @@ class PetServiceTest {
                 .email("gaby@example.com")
                 .build();
 
-        UserDetails userDetails = mock(UserDetails.class);
         Authentication authentication = mock(Authentication.class);
         SecurityContext securityContext = mock(SecurityContext.class);
 
 
-        when(userDetails.getUsername()).thenReturn("gaby@example.com");
-        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(user));
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
 
 
-        when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(user.getId())).thenReturn(user);
         when(petRepository.save(any(Pet.class))).thenAnswer(invocation -> {
             Pet saved = invocation.getArgument(0);
             saved.setId(UUID.randomUUID());
@@ -190,9 +303,9 @@ class PetServiceTest {
 
 
         assertNotNull(response);
-        assertEquals("Cookie", response.getName());
-        verify(petRepository, times(1)).save(any(Pet.class));
-        verify(userRepository, times(1)).findByEmail("gaby@example.com");
+        assertEquals("Cookie", response.name());
+        verify(petRepository, times(1)).save(argThat(saved -> saved.getOwner() == user));
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
@@ -0,0 +1,72 @@
+package com.petmatch.service;
+
+import com.petmatch.model.ResourceVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceVersionServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query query;
+
+    @InjectMocks
+    private ResourceVersionService resourceVersionService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void shouldBumpOnlyAfterCommit() {
+        when(entityManager.createNativeQuery("SELECT nextval('pets_version_seq')")).thenReturn(query);
+
+        resourceVersionService.bump(ResourceVersion.PETS);
+
+        verifyNoInteractions(entityManager);
+        commit();
+        verify(query, times(1)).getSingleResult();
+    }
+
+    @Test
+    void shouldNotFailTheCommittedWriteWhenTheBumpFails() {
+        when(entityManager.createNativeQuery(anyString())).thenThrow(new IllegalStateException("database down"));
+
+        resourceVersionService.bump(ResourceVersion.PETS);
+
+        assertDoesNotThrow(this::commit);
+    }
+
+    @Test
+    void shouldReadTheSequenceLastValue() {
+        when(entityManager.createNativeQuery("SELECT last_value FROM pets_version_seq")).thenReturn(query);
+        when(query.getSingleResult()).thenReturn(42L);
+
+        assertEquals(42L, resourceVersionService.current(ResourceVersion.PETS));
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+}
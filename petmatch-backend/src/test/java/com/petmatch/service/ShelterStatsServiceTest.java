@@ -0,0 +1,160 @@
+package com.petmatch.service;
+
+import com.petmatch.dto.ShelterStatsDTO;
+import com.petmatch.model.*;
+import com.petmatch.repository.AdoptionRequestRepository;
+import com.petmatch.repository.ShelterStatCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShelterStatsServiceTest {
+
+    @Mock
+    private ShelterStatCounterRepository counterRepository;
+
+    @InjectMocks
+    private ShelterStatsService shelterStatsService;
+
+    private User owner;
+    private Pet pet;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder().id(UUID.randomUUID()).email("shelter@example.com").build();
+        pet = Pet.builder()
+                .id(UUID.randomUUID())
+                .name("Lobby")
+                .type(PetType.DOG)
+                .status(PetStatus.AVAILABLE)
+                .owner(owner)
+                .createdAt(LocalDateTime.now().minusDays(3))
+                .build();
+    }
+
+    @Test
+    void shouldCountABatchOfPetsWithOneUpdatePerCounterInKeyOrder() {
+        Pet cat = Pet.builder().type(PetType.CAT).status(PetStatus.AVAILABLE).owner(owner).build();
+
+        shelterStatsService.petsAdded(owner.getId(), List.of(pet, cat, pet));
+
+        InOrder inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).add(owner.getId(), "pets.status.AVAILABLE", 3);
+        inOrder.verify(counterRepository).add(owner.getId(), "pets.type.CAT", 1);
+        inOrder.verify(counterRepository).add(owner.getId(), "pets.type.DOG", 2);
+        verifyNoMoreInteractions(counterRepository);
+    }
+
+    @Test
+    void shouldSkipCountersThatNetOutToZero() {
+        pet.setStatus(PetStatus.ADOPTED);
+
+        shelterStatsService.petChanged(pet, PetType.DOG, PetStatus.AVAILABLE);
+
+        verify(counterRepository).add(owner.getId(), "pets.status.AVAILABLE", -1);
+        verify(counterRepository).add(owner.getId(), "pets.status.ADOPTED", 1);
+        verifyNoMoreInteractions(counterRepository);
+    }
+
+    @Test
+    void shouldRecordTimeToAdoptionWhenARequestIsApproved() {
+        AdoptionRequest request = AdoptionRequest.builder().pet(pet).status(AdoptionStatus.APPROVED).build();
+
+        shelterStatsService.requestStatusChanged(request, AdoptionStatus.PENDING);
+
+        verify(counterRepository).add(owner.getId(), "requests.status.PENDING", -1);
+        verify(counterRepository).add(owner.getId(), "requests.status.APPROVED", 1);
+        verify(counterRepository).add(owner.getId(), "adoptions.count", 1);
+        verify(counterRepository).add(eq(owner.getId()), eq("adoptions.seconds"),
+                longThat(seconds -> seconds >= 3 * 24 * 3600L && seconds < 3 * 24 * 3600L + 60));
+    }
+
+    @Test
+    void shouldTakeAnAdoptionBackOutWhenAnApprovedRequestIsRemoved() {
+        LocalDateTime approvedAt = pet.getCreatedAt().plusDays(1);
+
+        shelterStatsService.requestRemoved(new AdoptionRequestRepository.CountedRequest(
+                UUID.randomUUID(), pet.getId(), owner.getId(), AdoptionStatus.APPROVED, approvedAt, pet.getCreatedAt()));
+
+        verify(counterRepository).add(owner.getId(), "requests.status.APPROVED", -1);
+        verify(counterRepository).add(owner.getId(), "adoptions.count", -1);
+        verify(counterRepository).add(owner.getId(), "adoptions.seconds", -24 * 3600L);
+        verifyNoMoreInteractions(counterRepository);
+    }
+
+    @Test
+    void shouldLeaveAdoptionsAloneWhenARemovedApprovedRequestWasNeverDated() {
+        shelterStatsService.requestRemoved(new AdoptionRequestRepository.CountedRequest(
+                UUID.randomUUID(), pet.getId(), owner.getId(), AdoptionStatus.APPROVED, null, pet.getCreatedAt()));
+
+        verify(counterRepository).add(owner.getId(), "requests.status.APPROVED", -1);
+        verifyNoMoreInteractions(counterRepository);
+    }
+
+    @Test
+    void shouldIgnorePetsWithoutAnOwner() {
+        pet.setOwner(null);
+
+        shelterStatsService.petAdded(pet);
+
+        verifyNoInteractions(counterRepository);
+    }
+
+    @Test
+    void shouldReadDashboardFromCountersWithZeroDefaults() {
+        when(counterRepository.findByOwnerId(owner.getId())).thenReturn(List.of(
+                counter("pets.status.AVAILABLE", 4),
+                counter("pets.status.ADOPTED", 2),
+                counter("pets.type.DOG", 6),
+                counter("requests.status.PENDING", 7),
+                counter("adoptions.count", 2),
+                counter("adoptions.seconds", 7200)));
+
+        ShelterStatsDTO stats = shelterStatsService.getStats(owner.getId());
+
+        assertEquals(6, stats.getTotalPets());
+        assertEquals(0L, stats.getPetsByStatus().get(PetStatus.PENDING));
+        assertEquals(0L, stats.getPetsByType().get(PetType.CAT));
+        assertEquals(7L, stats.getRequestsByStatus().get(AdoptionStatus.PENDING));
+        assertEquals(2, stats.getAdoptions());
+        assertEquals(3600L, stats.getAverageSecondsToAdoption());
+    }
+
+    @Test
+    void shouldRebuildCountersFromSourceTables() {
+        when(counterRepository.countPets(owner.getId())).thenReturn(List.of(
+                new ShelterStatCounterRepository.PetCount(PetStatus.AVAILABLE, PetType.DOG, 3L),
+                new ShelterStatCounterRepository.PetCount(PetStatus.ADOPTED, PetType.DOG, 1L)));
+        when(counterRepository.countRequests(owner.getId())).thenReturn(List.of(
+                new ShelterStatCounterRepository.RequestCount(AdoptionStatus.APPROVED, 1L)));
+        when(counterRepository.sumAdoptions(owner.getId()))
+                .thenReturn(new ShelterStatCounterRepository.AdoptionTotals(1L, 86400L));
+
+        ShelterStatsDTO stats = shelterStatsService.rebuild(owner.getId());
+
+        InOrder inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).lockByOwnerId(owner.getId());
+        inOrder.verify(counterRepository).deleteByOwnerId(owner.getId());
+        inOrder.verify(counterRepository).add(owner.getId(), "adoptions.count", 1);
+        verify(counterRepository).add(owner.getId(), "pets.type.DOG", 4);
+        assertEquals(4, stats.getTotalPets());
+        assertEquals(86400L, stats.getAverageSecondsToAdoption());
+    }
+
+    private ShelterStatCounter counter(String name, long amount) {
+        return new ShelterStatCounter(owner.getId(), name, amount);
+    }
+}
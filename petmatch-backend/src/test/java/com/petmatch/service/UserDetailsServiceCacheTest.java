@@ -0,0 +1,88 @@
+package com.petmatch.service;
+
+import com.petmatch.config.CacheConfig;
+import com.petmatch.model.Role;
+import com.petmatch.model.User;
+import com.petmatch.repository.UserRepository;
+import com.petmatch.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class UserDetailsServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, UserDetailsServiceImpl.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.PETS, CacheConfig.USERS_BY_EMAIL);
+        }
+    }
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USERS_BY_EMAIL).clear();
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .name("Gabriela")
+                .email("gaby@example.com")
+                .password("hashedPassword")
+                .role(Role.ADOPTER)
+                .build();
+    }
+
+    @Test
+    void shouldCacheAnImmutablePrincipalWithoutThePasswordHash() {
+        when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername("gaby@example.com");
+        user.setName("Changed on the entity");
+        UserDetails second = userDetailsService.loadUserByUsername("gaby@example.com");
+
+        assertSame(first, second);
+        assertEquals("Gabriela", assertInstanceOf(AuthenticatedUser.class, second).name());
+        assertNull(second.getPassword());
+        verify(userRepository, times(1)).findByEmail("gaby@example.com");
+    }
+
+    @Test
+    void shouldNotCacheUnknownEmails() {
+        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("new@example.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("new@example.com"));
+
+        verify(userRepository, times(2)).findByEmail("new@example.com");
+    }
+}
@@ -12,7 +12,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import java.util.Optional;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +22,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PasswordHasher passwordHasher;
+
     @InjectMocks
     private UserService userService;
 
@@ -41,12 +43,13 @@ class UserServiceTest {
     void shouldCreateUserSuccessfully() {
 
         when(userRepository.findByEmail("gaby@example.com")).thenReturn(Optional.empty());
+        when(passwordHasher.encode("secret123")).thenReturn("hashedPassword");
 
         User fakeSavedUser = User.builder()
                 .id(UUID.randomUUID())
                 .name("Gabriela")
                 .email("gaby@example.com")
-                .password(new BCryptPasswordEncoder().encode("secret123"))
+                .password("hashedPassword")
                 .role(Role.USER)
                 .build();
 
@@ -55,10 +58,10 @@ class UserServiceTest {
         UserResponseDTO response = userService.createUser(userRequestDTO);
 
         assertNotNull(response);
-        assertEquals("Gabriela", response.getName());
-        assertEquals("gaby@example.com", response.getEmail());
-        assertEquals(Role.USER, response.getRole());
-        verify(userRepository, times(1)).save(any(User.class));
+        assertEquals("Gabriela", response.name());
+        assertEquals("gaby@example.com", response.email());
+        assertEquals(Role.USER, response.role());
+        verify(userRepository, times(1)).save(argThat(user -> "hashedPassword".equals(user.getPassword())));
     }
 
     @Test
@@ -70,5 +73,6 @@ class UserServiceTest {
 
         assertEquals("Email already in use", exception.getMessage());
         verify(userRepository, never()).save(any());
+        verify(passwordHasher, never()).encode(any());
     }
 }